@@ -26,6 +26,8 @@ public @interface BpmResult {
     
     boolean flatten() default false;
     String flattenPrefix() default "";
+    /** Levels of nested objects flattened into {@code parent_child} variables; 1 flattens top-level properties only */
+    int flattenDepth() default 1;
     NullHandling nullHandling() default NullHandling.SET_NULL;
     boolean includeNullProperties() default false;
     
@@ -29,4 +29,49 @@ public @interface BpmWorker {
     int fetchSize() default 1;
     long lockDuration() default 30000;
     long asyncResponseTimeout() default 10000;
+    
+    /**
+     * Fetch this topic with its own client and fetch loop, using {@link #fetchSize()} and
+     * {@link #asyncResponseTimeout()} instead of the global {@code max-tasks} and long-poll timeout.
+     */
+    boolean dedicatedClient() default false;
+    
+    /**
+     * Fetch every process variable instead of only those bound to method parameters.
+     * Needed when the method reads further variables through a raw {@code ExternalTask}.
+     */
+    boolean fetchAllVariables() default false;
+    
+    /** Fetch only variables local to the external task's execution */
+    boolean localVariables() default false;
+    
+    /**
+     * Hand all tasks of this topic from one fetch to the method at once. The method takes a single
+     * {@code List<ExternalTask>}, or a {@code List} of an input type bound from each task's variables,
+     * and returns nothing or a {@code List} with one result per task, in order. A {@code Throwable}
+     * element fails its task as if the method had thrown it for that task alone.
+     */
+    boolean batch() default false;
+    
+    /**
+     * Process variable identifying the work of a task. With the redelivery guard enabled, a task
+     * carrying the key of a recently finished task of this topic gets that task's result instead
+     * of running the method again. Without it, only redeliveries of the same task are recognized.
+     */
+    String idempotencyKey() default "";
+    
+    /** Max parallel executions of this topic; 0 derives it from the executor type */
+    int concurrency() default 0;
+    ExecutorType executor() default ExecutorType.DEFAULT;
+    
+    enum ExecutorType {
+        /** Use the globally configured execution mode */
+        DEFAULT,
+        /** Run on the client's fetch thread */
+        DIRECT,
+        /** Isolated virtual-thread pool, suited for I/O-bound workers */
+        VIRTUAL_THREADS,
+        /** Isolated fixed platform-thread pool sized to the CPU cores, suited for CPU-bound workers */
+        PLATFORM_THREADS
+    }
 }
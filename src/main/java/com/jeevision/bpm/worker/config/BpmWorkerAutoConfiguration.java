@@ -1,5 +1,6 @@
 package com.jeevision.bpm.worker.config;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -8,10 +9,13 @@ import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jeevision.bpm.worker.handler.BpmTaskHandler;
+import com.jeevision.bpm.worker.metrics.MicrometerTaskMetrics;
+import com.jeevision.bpm.worker.metrics.TaskMetrics;
 import com.jeevision.bpm.worker.registry.BpmWorkerRegistry;
 
 /**
@@ -29,8 +33,9 @@ public class BpmWorkerAutoConfiguration {
     
     @Bean
     @ConditionalOnMissingBean
-    public BpmWorkerRegistry bpmWorkerRegistry(ApplicationContext applicationContext) {
-        return new BpmWorkerRegistry(applicationContext);
+    public BpmWorkerRegistry bpmWorkerRegistry(ApplicationContext applicationContext, 
+            ObjectProvider<ObjectMapper> objectMapperProvider) {
+        return new BpmWorkerRegistry(applicationContext, objectMapperProvider);
     }
     
     @Bean
@@ -44,4 +49,17 @@ public class BpmWorkerAutoConfiguration {
     public BpmTaskHandler bmpTaskHandler(ObjectMapper objectMapper, BpmWorkerProperties properties) {
         return new BpmTaskHandler(objectMapper, properties);
     }
+    
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    @ConditionalOnProperty(prefix = "bpm.worker.metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+    static class MetricsConfiguration {
+        
+        @Bean
+        @ConditionalOnMissingBean
+        public TaskMetrics bpmWorkerTaskMetrics(ObjectProvider<io.micrometer.core.instrument.MeterRegistry> meterRegistry) {
+            var registry = meterRegistry.getIfAvailable();
+            return registry != null ? new MicrometerTaskMetrics(registry) : TaskMetrics.NOOP;
+        }
+    }
 }
@@ -1,11 +1,18 @@
 package com.jeevision.bpm.worker.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.expression.spel.SpelCompilerMode;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.util.unit.DataSize;
 
 import lombok.Data;
 
 import java.net.InetAddress;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.jeevision.bpm.worker.annotation.BpmWorker;
+
 import jakarta.annotation.PostConstruct;
 
 /**
@@ -26,6 +33,18 @@ public class BpmWorkerProperties {
     private boolean usePriority = true;
     private Authentication auth = new Authentication();
     private Retry retry = new Retry();
+    private Execution execution = new Execution();
+    private Errors errors = new Errors();
+    private Jfr jfr = new Jfr();
+    private Lock lock = new Lock();
+    private Fetch fetch = new Fetch();
+    private Memory memory = new Memory();
+    private Backoff backoff = new Backoff();
+    private Prefetch prefetch = new Prefetch();
+    private Completion completion = new Completion();
+    private Outbox outbox = new Outbox();
+    private Redelivery redelivery = new Redelivery();
+    private Map<String, Topic> topics = new HashMap<>();
     
     @Value("${spring.application.name:spring-boot-app}")
     private String applicationName;
@@ -54,4 +73,143 @@ public class BpmWorkerProperties {
         private boolean useExponentialBackoff = false;
         private double backoffMultiplier = 2.0;
     }
+    
+    @Data
+    public static class Errors {
+        private SpelCompilerMode spelCompilerMode = SpelCompilerMode.OFF; // compilation of @BpmError code/message expressions
+    }
+    
+    @Data
+    public static class Lock {
+        private Heartbeat heartbeat = new Heartbeat();
+        private Adaptive adaptive = new Adaptive();
+        private Watchdog watchdog = new Watchdog();
+        
+        @Data
+        public static class Heartbeat {
+            private boolean enabled = false;
+            private long tick = 1000; // wheel resolution in milliseconds
+            private double renewalRatio = 0.5; // extend once this fraction of the lock has elapsed
+        }
+        
+        @Data
+        public static class Watchdog {
+            private boolean enabled = false;
+            private long grace = 5000; // how long past its lock an execution may run before it is interrupted, in milliseconds
+            private long tick = 1000; // how often running executions are checked in milliseconds
+        }
+        
+        @Data
+        public static class Adaptive {
+            private boolean enabled = false;
+            private double percentile = 0.99;
+            private double safetyFactor = 2.0;
+            private long min = 10000; // lower bound of a learned lock duration in milliseconds
+            private long max = 600000; // upper bound of a learned lock duration in milliseconds
+            private int minSamples = 50; // executions observed before the configured duration is replaced
+            private double tolerance = 0.2; // relative change needed before a topic is resubscribed
+            private long interval = 60000; // how often lock durations are re-evaluated in milliseconds
+        }
+    }
+    
+    @Data
+    public static class Fetch {
+        private boolean adaptive = false; // size fetches to the tasks the worker can start in time
+        private long startWithin = 15000; // time in milliseconds within which a fetched task must be able to start
+        private long minPause = 100; // shortest pause of a saturated fetch loop in milliseconds
+        private long maxPause = 5000; // longest pause of a saturated fetch loop in milliseconds
+    }
+    
+    @Data
+    public static class Backoff {
+        private Strategy strategy = Strategy.EXPONENTIAL;
+        private long initial = 500; // pause after the first empty fetch in milliseconds
+        private double multiplier = 4.0; // growth of the pause with every further empty fetch
+        private long max = 60000; // longest pause in milliseconds
+        private double jitter = 0.2; // fraction by which a pause is randomly shortened
+        
+        public enum Strategy {
+            /** The client's default, doubling from 500ms up to 60s */
+            EXPONENTIAL,
+            /** Backs off by the settings above and resets as soon as a fetch returns tasks */
+            ADAPTIVE,
+            /** Fetch again right after every fetch */
+            NONE
+        }
+    }
+    
+    @Data
+    public static class Prefetch {
+        private boolean enabled = false; // start waiting tasks by priority and hand back those about to expire
+        private long handBackBelow = 5000; // remaining lock time in milliseconds below which a waiting task is handed back
+        private long sweepInterval = 1000; // how often waiting tasks are checked in milliseconds
+    }
+    
+    @Data
+    public static class Completion {
+        private boolean enabled = false; // report tasks to the engine from a dedicated pipeline instead of the worker thread
+        private int concurrency = 16; // engine calls in progress at once
+        private int queueCapacity = 1024; // reports waiting for a pipeline thread before they overflow to a virtual thread each
+        private int maxAttempts = 3; // tries of an engine call failing with a transient error
+        private long retryDelay = 200; // pause before the first retry in milliseconds, doubled with every further one
+    }
+    
+    @Data
+    public static class Outbox {
+        private boolean enabled = false; // journal task reports on disk until the engine accepted them
+        private String directory = "bpm-worker-outbox"; // local directory of the journal
+        private DataSize segmentSize = DataSize.ofMegabytes(16); // size of one memory-mapped journal file
+        private boolean sync = false; // force every record to the device, not only to the page cache
+        private long replayInterval = 5000; // how often parked reports are sent again in milliseconds
+        private long extendBelow = 10000; // remaining lock time in milliseconds below which the lock is extended before a replay
+        private long lockExtension = 60000; // lock duration in milliseconds requested by that extension
+    }
+    
+    @Data
+    public static class Redelivery {
+        private boolean enabled = false; // answer tasks delivered again with their cached result
+        private int maxEntries = 10000; // results kept, the least recently used is evicted first
+        private long ttl = 600000; // how long a result is kept in milliseconds
+    }
+    
+    @Data
+    public static class Memory {
+        private boolean enabled = false;
+        private DataSize maxBytesInFlight = DataSize.ofMegabytes(256); // estimated variable payload of running tasks
+        private double maxHeapUsage = 0.85; // fraction of the max heap above which no further task is started
+    }
+    
+    @Data
+    public static class Jfr {
+        private boolean enabled = false; // emit JDK Flight Recorder events for task execution
+    }
+    
+    @Data
+    public static class Execution {
+        private Mode mode = Mode.DIRECT;
+        private int maxInFlight = 256; // upper bound of tasks held by this worker at once
+        private long shutdownTimeout = 30000; // 30 seconds in milliseconds
+        
+        public enum Mode {
+            /** Run worker methods on the client's fetch thread */
+            DIRECT,
+            /** Hand fetched tasks to a virtual-thread-per-task executor */
+            VIRTUAL_THREADS,
+            /** Hand fetched tasks to a fixed platform-thread pool per topic */
+            PLATFORM_THREADS
+        }
+    }
+    
+    /**
+     * Per-topic overrides of the {@link BpmWorker} attributes, keyed by topic name.
+     */
+    @Data
+    public static class Topic {
+        private Integer concurrency;
+        private BpmWorker.ExecutorType executor;
+        private Integer queueCapacity;
+        private Boolean dedicatedClient;
+        private Integer fetchSize;
+        private Long asyncResponseTimeout;
+    }
 }
\ No newline at end of file
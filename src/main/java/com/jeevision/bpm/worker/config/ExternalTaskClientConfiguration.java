@@ -1,7 +1,25 @@
 package com.jeevision.bpm.worker.config;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
 import org.cibseven.bpm.client.ExternalTaskClient;
 import org.cibseven.bpm.client.ExternalTaskClientBuilder;
+import org.cibseven.bpm.client.backoff.BackoffStrategy;
+import org.cibseven.bpm.client.backoff.ExponentialBackoffStrategy;
+import org.cibseven.bpm.client.task.ExternalTaskHandler;
+import org.cibseven.bpm.client.topic.TopicSubscription;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -12,9 +30,29 @@ import org.springframework.context.event.EventListener;
 import org.springframework.util.StringUtils;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jeevision.bpm.worker.annotation.BpmWorker;
+import com.jeevision.bpm.worker.execution.AdaptiveBackoffStrategy;
+import com.jeevision.bpm.worker.execution.CompletionPipeline;
+import com.jeevision.bpm.worker.execution.FetchBoundary;
+import com.jeevision.bpm.worker.execution.FetchController;
+import com.jeevision.bpm.worker.execution.MemoryAdmission;
+import com.jeevision.bpm.worker.execution.TaskAdmission;
+import com.jeevision.bpm.worker.execution.TaskDispatcher;
+import com.jeevision.bpm.worker.execution.TopicBulkhead;
+import com.jeevision.bpm.worker.handler.AsyncResults;
+import com.jeevision.bpm.worker.handler.BatchTaskHandler;
 import com.jeevision.bpm.worker.handler.BpmTaskHandler;
+import com.jeevision.bpm.worker.handler.RedeliveryCache;
+import com.jeevision.bpm.worker.lock.AdaptiveLockDuration;
+import com.jeevision.bpm.worker.lock.DeadlineWatchdog;
+import com.jeevision.bpm.worker.lock.LockHeartbeat;
+import com.jeevision.bpm.worker.metrics.TaskMetrics;
+import com.jeevision.bpm.worker.model.WorkerMethod;
+import com.jeevision.bpm.worker.outbox.CompletionJournal;
+import com.jeevision.bpm.worker.outbox.CompletionOutbox;
 import com.jeevision.bpm.worker.registry.BpmWorkerRegistry;
 
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -34,24 +72,119 @@ public class ExternalTaskClientConfiguration {
     private final BpmWorkerProperties properties;
     private final BpmWorkerRegistry workerRegistry;
     private final ObjectMapper objectMapper;
+    private final ObjectProvider<TaskMetrics> taskMetrics;
+    private final ObjectProvider<ObservationRegistry> observationRegistry;
+    private final ObjectProvider<BackoffStrategy> backoffStrategy;
+    
+    private static final BpmWorkerProperties.Topic NO_TOPIC_OVERRIDES = new BpmWorkerProperties.Topic();
     
     private ExternalTaskClient client;
+    private final List<ExternalTaskClient> dedicatedClients = new ArrayList<>();
+    private final List<TopicBulkhead> bulkheads = new ArrayList<>();
+    private TaskAdmission admission;
+    private MemoryAdmission memoryAdmission;
+    private final Map<ExternalTaskClient, FetchController> fetchControllers = new IdentityHashMap<>();
+    private final Map<ExternalTaskClient, FetchBoundary> fetchBoundaries = new IdentityHashMap<>();
+    private LockHeartbeat lockHeartbeat;
+    private DeadlineWatchdog deadlineWatchdog;
+    private CompletionPipeline completionPipeline;
+    private ExecutorService asyncReporting;
+    private CompletionOutbox outbox;
+    private ScheduledExecutorService outboxReplay;
+    private RedeliveryCache redeliveryCache;
+    private final List<AdaptiveSubscription> adaptiveSubscriptions = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService lockAdaptation;
+    private ScheduledExecutorService prefetchSweep;
     
     @Bean
     public ExternalTaskClient externalTaskClient() {
+        client = buildClient(properties.getMaxTasks(), properties.getAsyncResponseTimeout());
+        return client;
+    }
+    
+    private ExternalTaskClient buildClient(int maxTasks, long asyncResponseTimeout) {
+        int resolvedMaxTasks = resolveMaxTasks(maxTasks);
         ExternalTaskClientBuilder builder = ExternalTaskClient.create()
                 .baseUrl(properties.getBaseUrl())
                 .workerId(properties.getWorkerId())
-                .maxTasks(properties.getMaxTasks())
-                .asyncResponseTimeout(properties.getAsyncResponseTimeout())
+                .maxTasks(resolvedMaxTasks)
+                .asyncResponseTimeout(asyncResponseTimeout)
                 .lockDuration(properties.getLockDuration())
                 .usePriority(properties.isUsePriority());
         
+        // With adaptive fetching the idle-poll backoff is wrapped by the client's FetchController, which
+        // pauses on its own while the worker is saturated; the FetchBoundary lets batch workers run
+        // once a fetch was handed over
+        var idleBackoff = idleBackoff();
+        var fetchController = fetchController(resolvedMaxTasks, idleBackoff);
+        var fetchBoundary = new FetchBoundary(fetchController != null ? fetchController : idleBackoff);
+        builder.backoffStrategy(fetchBoundary);
+        
         configureAuthentication(builder);
         
-        client = builder.build();
+        var built = builder.build();
+        fetchBoundaries.put(built, fetchBoundary);
+        if (fetchController != null) {
+            fetchControllers.put(built, fetchController);
+        }
+        return built;
+    }
+    
+    private BackoffStrategy idleBackoff() {
+        // Every client gets its own instance unless the bean is a singleton
+        var custom = backoffStrategy.getIfAvailable();
+        if (custom != null) {
+            return custom;
+        }
         
-        return client;
+        var backoff = properties.getBackoff();
+        if (backoff == null) {
+            return new ExponentialBackoffStrategy();
+        }
+        return switch (backoff.getStrategy()) {
+            case EXPONENTIAL -> new ExponentialBackoffStrategy();
+            case ADAPTIVE -> new AdaptiveBackoffStrategy(backoff.getInitial(), backoff.getMultiplier(), 
+                    backoff.getMax(), backoff.getJitter());
+            case NONE -> null;
+        };
+    }
+    
+    private FetchController fetchController(int maxTasks, BackoffStrategy idleBackoff) {
+        var fetch = properties.getFetch();
+        if (fetch == null || !fetch.isAdaptive()) {
+            return null;
+        }
+        return new FetchController(admission(), maxTasks, fetch.getStartWithin(), fetch.getMinPause(), fetch.getMaxPause(), 
+                idleBackoff).withMemoryAdmission(memoryAdmission());
+    }
+    
+    private MemoryAdmission memoryAdmission() {
+        var memory = properties.getMemory();
+        if (memory == null || !memory.isEnabled()) {
+            return null;
+        }
+        if (memoryAdmission == null) {
+            memoryAdmission = new MemoryAdmission(memory.getMaxBytesInFlight().toBytes(), memory.getMaxHeapUsage());
+            log.info("Admitting tasks while running tasks hold less than {} of variables and {}% of the heap is used", 
+                    memory.getMaxBytesInFlight(), Math.round(memory.getMaxHeapUsage() * 100));
+        }
+        return memoryAdmission;
+    }
+    
+    private TaskAdmission admission() {
+        if (admission == null) {
+            admission = new TaskAdmission(properties.getExecution().getMaxInFlight());
+        }
+        return admission;
+    }
+    
+    private int resolveMaxTasks(int maxTasks) {
+        var execution = properties.getExecution();
+        if (execution.getMode() == BpmWorkerProperties.Execution.Mode.DIRECT) {
+            return maxTasks;
+        }
+        // Never lock more tasks in one fetch than the worker is able to admit
+        return Math.min(maxTasks, execution.getMaxInFlight());
     }
     
 	private void configureAuthentication(ExternalTaskClientBuilder builder) {
@@ -77,15 +210,332 @@ public class ExternalTaskClientConfiguration {
         workerRegistry.getAllWorkerMethods().forEach((topic, workerMethod) -> {
             log.debug("Subscribing to topic: {}", topic);
             
-            client.subscribe(topic)
-                    .lockDuration(workerMethod.getWorkerAnnotation().lockDuration())
-                    .handler(new BpmTaskHandler(objectMapper, properties).withWorkerMethod(workerMethod))
-                    .open();
+            var topicClient = clientFor(workerMethod);
+            if (workerMethod.isBatch()) {
+                var handler = createBatchHandler(workerMethod, fetchBoundaries.get(topicClient));
+                openSubscription(topicClient, workerMethod, handler, workerMethod.getWorkerAnnotation().lockDuration());
+                return;
+            }
+            
+            var adaptiveLockDuration = adaptiveLockDuration(workerMethod);
+            var handler = createTaskHandler(workerMethod, adaptiveLockDuration, fetchControllers.get(topicClient));
+            
+            if (adaptiveLockDuration == null) {
+                openSubscription(topicClient, workerMethod, handler, workerMethod.getWorkerAnnotation().lockDuration());
+            } else {
+                var subscription = new AdaptiveSubscription(topicClient, workerMethod, handler, adaptiveLockDuration);
+                subscription.topicSubscription = openSubscription(topicClient, workerMethod, handler, adaptiveLockDuration.getCurrent());
+                adaptiveSubscriptions.add(subscription);
+            }
         });
         
+        if (!adaptiveSubscriptions.isEmpty()) {
+            scheduleLockAdaptation();
+        }
+        if (bulkheads.stream().anyMatch(TopicBulkhead::isPrioritized)) {
+            schedulePrefetchSweep();
+        }
+        
         log.info("Subscribed to BPM worker topics: {}", workerRegistry.getRegisteredTopics());
     }
     
+    private TopicSubscription openSubscription(ExternalTaskClient topicClient, WorkerMethod workerMethod, 
+            ExternalTaskHandler handler, long lockDuration) {
+        var subscription = topicClient.subscribe(workerMethod.getTopic())
+                .lockDuration(lockDuration)
+                .handler(handler);
+        
+        if (workerMethod.getVariableNames() != null) {
+            log.debug("Topic '{}' fetches variables {}", workerMethod.getTopic(), workerMethod.getVariableNames());
+            subscription = subscription.variables(workerMethod.getVariableNames().toArray(String[]::new));
+        }
+        if (workerMethod.isLocalVariables()) {
+            subscription = subscription.localVariables(true);
+        }
+        
+        return subscription.open();
+    }
+    
+    private AdaptiveLockDuration adaptiveLockDuration(WorkerMethod workerMethod) {
+        var lock = properties.getLock();
+        if (lock == null || !lock.getAdaptive().isEnabled()) {
+            return null;
+        }
+        return new AdaptiveLockDuration(workerMethod.getWorkerAnnotation().lockDuration(), lock.getAdaptive());
+    }
+    
+    private void scheduleLockAdaptation() {
+        long interval = properties.getLock().getAdaptive().getInterval();
+        lockAdaptation = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("bpm-lock-adaptation").factory());
+        lockAdaptation.scheduleWithFixedDelay(this::adaptLockDurations, interval, interval, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * A subscription's lock duration is fixed once opened, so a topic whose learned duration
+     * moved is resubscribed; tasks already fetched keep running on the same handler.
+     */
+    private void adaptLockDurations() {
+        for (var subscription : adaptiveSubscriptions) {
+            try {
+                if (!subscription.adaptiveLockDuration.adapt()) {
+                    continue;
+                }
+                long lockDuration = subscription.adaptiveLockDuration.getCurrent();
+                log.info("Topic '{}' now locks tasks for {}ms, learned from its execution times", 
+                        subscription.workerMethod.getTopic(), lockDuration);
+                if (subscription.topicSubscription != null) {
+                    subscription.topicSubscription.close();
+                }
+                subscription.topicSubscription = openSubscription(subscription.client, subscription.workerMethod, 
+                        subscription.handler, lockDuration);
+            } catch (RuntimeException e) {
+                log.warn("Could not adapt lock duration of topic '{}'", subscription.workerMethod.getTopic(), e);
+            }
+        }
+    }
+    
+    private ExternalTaskClient clientFor(WorkerMethod workerMethod) {
+        var topicProperties = topicProperties(workerMethod);
+        var annotation = workerMethod.getWorkerAnnotation();
+        
+        boolean dedicated = topicProperties.getDedicatedClient() != null 
+                ? topicProperties.getDedicatedClient() 
+                : annotation.dedicatedClient();
+        if (!dedicated) {
+            return client;
+        }
+        
+        int fetchSize = topicProperties.getFetchSize() != null ? topicProperties.getFetchSize() : annotation.fetchSize();
+        long asyncResponseTimeout = topicProperties.getAsyncResponseTimeout() != null 
+                ? topicProperties.getAsyncResponseTimeout() 
+                : annotation.asyncResponseTimeout();
+        
+        var dedicatedClient = buildClient(fetchSize, asyncResponseTimeout);
+        dedicatedClients.add(dedicatedClient);
+        log.info("Topic '{}' is fetched by a dedicated client (fetch size {}, async response timeout {}ms)", 
+                workerMethod.getTopic(), fetchSize, asyncResponseTimeout);
+        return dedicatedClient;
+    }
+    
+    private BpmWorkerProperties.Topic topicProperties(WorkerMethod workerMethod) {
+        return properties.getTopics().getOrDefault(workerMethod.getTopic(), NO_TOPIC_OVERRIDES);
+    }
+    
+    private ExternalTaskHandler createTaskHandler(WorkerMethod workerMethod, AdaptiveLockDuration adaptiveLockDuration, 
+            FetchController fetchController) {
+        var handler = new BpmTaskHandler(objectMapper, properties)
+                .withWorkerMethod(workerMethod)
+                .withMetrics(taskMetrics.getIfAvailable())
+                .withObservationRegistry(observationRegistry.getIfAvailable())
+                .withLockHeartbeat(lockHeartbeat())
+                .withDeadlineWatchdog(deadlineWatchdog())
+                .withAdaptiveLockDuration(adaptiveLockDuration)
+                .withAsyncReporting(isAsync(workerMethod) ? asyncReporting() : null)
+                .withCompletionPipeline(completionPipeline())
+                .withOutbox(outbox())
+                .withRedeliveryCache(redeliveryCache());
+        
+        var executorType = resolveExecutorType(workerMethod);
+        if (executorType == BpmWorker.ExecutorType.DIRECT) {
+            // Tasks still pending or waiting to be reported are bounded by the in-flight limit, 
+            // and their variables by the memory limit
+            var memory = memoryAdmission();
+            return isAsync(workerMethod) || completionPipeline != null || memory != null
+                    ? new TaskDispatcher(handler, Runnable::run, admission(), fetchController, memory) 
+                    : handler;
+        }
+        
+        var bulkhead = createBulkhead(workerMethod, executorType);
+        bulkheads.add(bulkhead);
+        
+        log.info("Topic '{}' runs on {} with concurrency {}", 
+                workerMethod.getTopic(), executorType, bulkhead.getConcurrency());
+        return new TaskDispatcher(handler, bulkhead, admission(), fetchController, memoryAdmission());
+    }
+    
+    /**
+     * A batch runs on the fetch thread or, with an executor, as a single job of the topic's bulkhead.
+     * Its tasks pass the same admission, heartbeat and watchdog as single tasks; the lock duration
+     * is not learned, since a batch takes as long as all of its tasks together.
+     */
+    private ExternalTaskHandler createBatchHandler(WorkerMethod workerMethod, FetchBoundary fetchBoundary) {
+        var reporter = new BpmTaskHandler(objectMapper, properties)
+                .withWorkerMethod(workerMethod)
+                .withMetrics(taskMetrics.getIfAvailable())
+                .withObservationRegistry(observationRegistry.getIfAvailable())
+                .withLockHeartbeat(lockHeartbeat())
+                .withDeadlineWatchdog(deadlineWatchdog())
+                .withCompletionPipeline(completionPipeline())
+                .withOutbox(outbox());
+        if (adaptiveLockDuration(workerMethod) != null) {
+            log.info("Topic '{}' is processed in batches and keeps its lock duration of {}ms", 
+                    workerMethod.getTopic(), workerMethod.getWorkerAnnotation().lockDuration());
+        }
+        
+        Executor executor = Runnable::run;
+        var executorType = resolveExecutorType(workerMethod);
+        if (executorType != BpmWorker.ExecutorType.DIRECT) {
+            var bulkhead = createBulkhead(workerMethod, executorType);
+            bulkheads.add(bulkhead);
+            executor = bulkhead;
+        }
+        
+        var handler = new BatchTaskHandler(reporter, workerMethod, objectMapper, executor)
+                .withAdmission(admission(), memoryAdmission());
+        fetchBoundary.onFetchHandedOver(handler::flush);
+        log.info("Topic '{}' is processed in batches of one fetch on {}", workerMethod.getTopic(), executorType);
+        return handler;
+    }
+    
+    private LockHeartbeat lockHeartbeat() {
+        var lock = properties.getLock();
+        if (lock == null || !lock.getHeartbeat().isEnabled()) {
+            return null;
+        }
+        if (lockHeartbeat == null) {
+            var heartbeat = lock.getHeartbeat();
+            lockHeartbeat = new LockHeartbeat(heartbeat.getTick(), heartbeat.getRenewalRatio());
+            log.info("Extending task locks once {}% of their duration has elapsed", Math.round(heartbeat.getRenewalRatio() * 100));
+        }
+        return lockHeartbeat;
+    }
+    
+    private DeadlineWatchdog deadlineWatchdog() {
+        var lock = properties.getLock();
+        if (lock == null || !lock.getWatchdog().isEnabled()) {
+            return null;
+        }
+        if (deadlineWatchdog == null) {
+            var watchdog = lock.getWatchdog();
+            deadlineWatchdog = new DeadlineWatchdog(watchdog.getGrace(), watchdog.getTick());
+            log.info("Interrupting worker methods running {}ms past the lock of their task", watchdog.getGrace());
+        }
+        return deadlineWatchdog;
+    }
+    
+    private CompletionPipeline completionPipeline() {
+        var completion = properties.getCompletion();
+        if (completion == null || !completion.isEnabled()) {
+            return null;
+        }
+        if (completionPipeline == null) {
+            completionPipeline = new CompletionPipeline(completion.getConcurrency(), completion.getQueueCapacity(), 
+                    completion.getMaxAttempts(), completion.getRetryDelay(), asyncReporting());
+            log.info("Reporting tasks from a completion pipeline with {} threads", completion.getConcurrency());
+        }
+        return completionPipeline;
+    }
+    
+    /**
+     * Reports the results of asynchronous worker methods, and those the completion pipeline has no room for,
+     * one virtual thread per report.
+     */
+    private ExecutorService asyncReporting() {
+        if (asyncReporting == null) {
+            asyncReporting = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("bpm-async-report-", 0).factory());
+        }
+        return asyncReporting;
+    }
+    
+    private CompletionOutbox outbox() {
+        var outboxProperties = properties.getOutbox();
+        if (outboxProperties == null || !outboxProperties.isEnabled()) {
+            return null;
+        }
+        if (outbox == null) {
+            long segmentSize = outboxProperties.getSegmentSize().toBytes();
+            if (segmentSize < 1 || segmentSize > Integer.MAX_VALUE) {
+                throw new IllegalStateException("bpm.worker.outbox.segment-size must be between 1B and " 
+                        + Integer.MAX_VALUE + "B, got " + outboxProperties.getSegmentSize());
+            }
+            var directory = Path.of(outboxProperties.getDirectory());
+            try {
+                var journal = new CompletionJournal(directory, (int) segmentSize, outboxProperties.isSync());
+                outbox = new CompletionOutbox(journal, objectMapper, 
+                        outboxProperties.getExtendBelow(), outboxProperties.getLockExtension());
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not open the completion outbox in " + directory.toAbsolutePath(), e);
+            }
+            
+            long interval = outboxProperties.getReplayInterval();
+            outboxReplay = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().daemon().name("bpm-outbox-replay").factory());
+            outboxReplay.scheduleWithFixedDelay(outbox::replay, interval, interval, TimeUnit.MILLISECONDS);
+            log.info("Journaling task reports in {}", directory.toAbsolutePath());
+        }
+        return outbox;
+    }
+    
+    private RedeliveryCache redeliveryCache() {
+        var redelivery = properties.getRedelivery();
+        if (redelivery == null || !redelivery.isEnabled()) {
+            return null;
+        }
+        if (redeliveryCache == null) {
+            redeliveryCache = new RedeliveryCache(redelivery.getMaxEntries(), redelivery.getTtl());
+            log.info("Remembering up to {} task results for {}ms to answer redelivered tasks", 
+                    redelivery.getMaxEntries(), redelivery.getTtl());
+        }
+        return redeliveryCache;
+    }
+    
+    private static boolean isAsync(WorkerMethod workerMethod) {
+        return workerMethod.getMethod() != null && AsyncResults.isAsync(workerMethod.getMethod().getReturnType());
+    }
+    
+    private BpmWorker.ExecutorType resolveExecutorType(WorkerMethod workerMethod) {
+        var topicProperties = topicProperties(workerMethod);
+        if (topicProperties.getExecutor() != null && topicProperties.getExecutor() != BpmWorker.ExecutorType.DEFAULT) {
+            return topicProperties.getExecutor();
+        }
+        
+        var annotated = workerMethod.getWorkerAnnotation().executor();
+        if (annotated != null && annotated != BpmWorker.ExecutorType.DEFAULT) {
+            return annotated;
+        }
+        
+        return switch (properties.getExecution().getMode()) {
+            case DIRECT -> BpmWorker.ExecutorType.DIRECT;
+            case VIRTUAL_THREADS -> BpmWorker.ExecutorType.VIRTUAL_THREADS;
+            case PLATFORM_THREADS -> BpmWorker.ExecutorType.PLATFORM_THREADS;
+        };
+    }
+    
+    private TopicBulkhead createBulkhead(WorkerMethod workerMethod, BpmWorker.ExecutorType executorType) {
+        var topic = workerMethod.getTopic();
+        var topicProperties = topicProperties(workerMethod);
+        
+        int concurrency = workerMethod.getWorkerAnnotation().concurrency();
+        if (topicProperties.getConcurrency() != null) {
+            concurrency = topicProperties.getConcurrency();
+        }
+        if (concurrency <= 0) {
+            concurrency = executorType == BpmWorker.ExecutorType.PLATFORM_THREADS
+                    ? Runtime.getRuntime().availableProcessors()
+                    : properties.getExecution().getMaxInFlight();
+        }
+        
+        int queueCapacity = topicProperties.getQueueCapacity() != null
+                ? topicProperties.getQueueCapacity()
+                : concurrency;
+        
+        var prefetch = properties.getPrefetch();
+        long handBackBelow = prefetch != null && prefetch.isEnabled() ? prefetch.getHandBackBelow() : -1;
+        
+        return executorType == BpmWorker.ExecutorType.PLATFORM_THREADS
+                ? TopicBulkhead.platformThreads(topic, concurrency, queueCapacity, handBackBelow)
+                : TopicBulkhead.virtualThreads(topic, concurrency, queueCapacity, handBackBelow);
+    }
+    
+    private void schedulePrefetchSweep() {
+        long interval = properties.getPrefetch().getSweepInterval();
+        prefetchSweep = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("bpm-prefetch-sweep").factory());
+        prefetchSweep.scheduleWithFixedDelay(() -> bulkheads.forEach(TopicBulkhead::handBackExpiring), 
+                interval, interval, TimeUnit.MILLISECONDS);
+    }
+    
     @EventListener(ContextClosedEvent.class)
     public void onContextClosed() {
         closeClient();
@@ -98,11 +548,100 @@ public class ExternalTaskClientConfiguration {
     
     @PreDestroy
     public void closeClient() {
+        if (lockAdaptation != null) {
+            lockAdaptation.shutdownNow();
+            lockAdaptation = null;
+        }
+        adaptiveSubscriptions.clear();
+        if (prefetchSweep != null) {
+            prefetchSweep.shutdownNow();
+            prefetchSweep = null;
+        }
         if (client != null) {
             client.stop();
             client = null;
             log.info("Stopped BPM External Task Client");
         }
+        dedicatedClients.forEach(ExternalTaskClient::stop);
+        dedicatedClients.clear();
+        fetchControllers.clear();
+        fetchBoundaries.clear();
+        shutdownBulkheads();
+        if (completionPipeline != null) {
+            // Report what the workers finished before their locks are given up
+            completionPipeline.shutdown(properties.getExecution().getShutdownTimeout());
+            completionPipeline = null;
+        }
+        shutdownAsyncReporting();
+        if (outboxReplay != null) {
+            outboxReplay.shutdownNow();
+            outboxReplay = null;
+        }
+        if (outbox != null) {
+            outbox.close();
+            outbox = null;
+        }
+        redeliveryCache = null;
+        if (lockHeartbeat != null) {
+            lockHeartbeat.close();
+            lockHeartbeat = null;
+        }
+        if (deadlineWatchdog != null) {
+            deadlineWatchdog.close();
+            deadlineWatchdog = null;
+        }
+    }
+    
+    /**
+     * Lets results that already settled be reported; results still pending are given up with their locks.
+     */
+    private void shutdownAsyncReporting() {
+        if (asyncReporting == null) {
+            return;
+        }
+        asyncReporting.shutdown();
+        try {
+            if (!asyncReporting.awaitTermination(properties.getExecution().getShutdownTimeout(), TimeUnit.MILLISECONDS)) {
+                log.warn("Results of asynchronous workers were not reported within the shutdown timeout");
+                asyncReporting.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            asyncReporting.shutdownNow();
+        }
+        asyncReporting = null;
+    }
+    
+    private void shutdownBulkheads() {
+        if (bulkheads.isEmpty()) {
+            return;
+        }
+        
+        bulkheads.forEach(TopicBulkhead::shutdown);
+        long deadline = System.currentTimeMillis() + properties.getExecution().getShutdownTimeout();
+        try {
+            for (var bulkhead : bulkheads) {
+                long remaining = Math.max(0, deadline - System.currentTimeMillis());
+                if (!bulkhead.awaitTermination(remaining, TimeUnit.MILLISECONDS)) {
+                    log.warn("Tasks of topic '{}' did not finish within the shutdown timeout, interrupting them", bulkhead.getTopic());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        bulkheads.forEach(TopicBulkhead::close);
+        bulkheads.clear();
+        admission = null;
+        memoryAdmission = null;
+    }
+    
+    @RequiredArgsConstructor
+    private static class AdaptiveSubscription {
+        private final ExternalTaskClient client;
+        private final WorkerMethod workerMethod;
+        private final ExternalTaskHandler handler;
+        private final AdaptiveLockDuration adaptiveLockDuration;
+        private TopicSubscription topicSubscription;
     }
     
     private static class BearerTokenInterceptor implements org.cibseven.bpm.client.interceptor.ClientRequestInterceptor {
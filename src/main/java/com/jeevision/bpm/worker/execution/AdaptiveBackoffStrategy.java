@@ -0,0 +1,72 @@
+package com.jeevision.bpm.worker.execution;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.cibseven.bpm.client.backoff.BackoffStrategy;
+import org.cibseven.bpm.client.task.ExternalTask;
+
+/**
+ * Idle-poll backoff that grows steeply while fetches come back empty and drops to zero
+ * as soon as a fetch returns a task. Jitter keeps many workers polling the same quiet
+ * topics from hitting the engine in lockstep.
+ *
+ * @author Slava Yermakov
+ * @email v.yermakov@gmail.com
+ */
+public class AdaptiveBackoffStrategy implements BackoffStrategy {
+    
+    private final long initial;
+    private final double multiplier;
+    private final long max;
+    private final double jitter;
+    
+    private int emptyFetches;
+    
+    /**
+     * @param initial pause (ms) after the first empty fetch
+     * @param multiplier growth of the pause with every further empty fetch
+     * @param max longest pause (ms)
+     * @param jitter fraction by which a pause is randomly shortened
+     */
+    public AdaptiveBackoffStrategy(long initial, double multiplier, long max, double jitter) {
+        if (initial < 0 || max < initial) {
+            throw new IllegalArgumentException("Backoff must satisfy 0 <= initial <= max, got " + initial + " and " + max);
+        }
+        if (multiplier < 1) {
+            throw new IllegalArgumentException("Backoff multiplier must be at least 1, got " + multiplier);
+        }
+        this.initial = initial;
+        this.multiplier = multiplier;
+        this.max = max;
+        this.jitter = Math.max(0, Math.min(1, jitter));
+    }
+    
+    /**
+     * Called by the client's fetch thread after every fetch.
+     */
+    @Override
+    public void reconfigure(List<ExternalTask> externalTasks) {
+        if (externalTasks.isEmpty()) {
+            emptyFetches++;
+        } else {
+            emptyFetches = 0;
+        }
+    }
+    
+    @Override
+    public long calculateBackoffTime() {
+        if (emptyFetches == 0) {
+            return 0;
+        }
+        long backoff = (long) Math.min(max, initial * Math.pow(multiplier, emptyFetches - 1));
+        if (jitter == 0) {
+            return backoff;
+        }
+        return backoff - (long) (backoff * jitter * ThreadLocalRandom.current().nextDouble());
+    }
+    
+    int getEmptyFetches() {
+        return emptyFetches;
+    }
+}
@@ -0,0 +1,36 @@
+package com.jeevision.bpm.worker.execution;
+
+import java.util.concurrent.CompletionStage;
+
+import org.cibseven.bpm.client.task.ExternalTask;
+import org.cibseven.bpm.client.task.ExternalTaskHandler;
+import org.cibseven.bpm.client.task.ExternalTaskService;
+
+/**
+ * Handler whose tasks may still be in flight when the executing thread returns. The
+ * {@link TaskDispatcher} keeps such a task admitted until the returned stage settles.
+ *
+ * @author Slava Yermakov
+ * @email v.yermakov@gmail.com
+ */
+public interface AsyncTaskHandler extends ExternalTaskHandler {
+    
+    /**
+     * @return stage that settles once the task has been reported to the engine
+     */
+    CompletionStage<?> executeAsync(ExternalTask externalTask, ExternalTaskService externalTaskService);
+    
+    /**
+     * @param payloadSize estimated size in bytes of the task's variables, as admitted; {@code -1} if not estimated
+     * @return stage that settles once the task has been reported to the engine
+     */
+    default CompletionStage<?> executeAsync(ExternalTask externalTask, ExternalTaskService externalTaskService, 
+            long payloadSize) {
+        return executeAsync(externalTask, externalTaskService);
+    }
+    
+    @Override
+    default void execute(ExternalTask externalTask, ExternalTaskService externalTaskService) {
+        executeAsync(externalTask, externalTaskService);
+    }
+}
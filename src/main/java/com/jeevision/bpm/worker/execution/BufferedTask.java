@@ -0,0 +1,79 @@
+package com.jeevision.bpm.worker.execution;
+
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.cibseven.bpm.client.task.ExternalTask;
+
+/**
+ * A fetched task waiting in a {@link TopicBulkhead}, together with what is needed to order it
+ * and to hand it back to the engine if it waits too long.
+ *
+ * @author Slava Yermakov
+ * @email v.yermakov@gmail.com
+ */
+final class BufferedTask implements Runnable {
+    
+    /** Highest priority first, then the lock expiring first, then arrival order */
+    static final Comparator<BufferedTask> ORDER = Comparator.comparingLong((BufferedTask task) -> task.priority).reversed()
+            .thenComparingLong(task -> task.lockExpiresAt)
+            .thenComparingLong(task -> task.sequence);
+    
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+    private static final Runnable NOTHING = () -> { };
+    
+    private final String taskId;
+    private final long priority;
+    private final long lockExpiresAt;
+    private final long sequence = SEQUENCE.getAndIncrement();
+    private final Runnable execution;
+    private final Runnable handBack;
+    
+    private BufferedTask(String taskId, long priority, long lockExpiresAt, Runnable execution, Runnable handBack) {
+        this.taskId = taskId;
+        this.priority = priority;
+        this.lockExpiresAt = lockExpiresAt;
+        this.execution = execution;
+        this.handBack = handBack;
+    }
+    
+    static BufferedTask of(ExternalTask externalTask, Runnable execution, Runnable handBack) {
+        var lockExpirationTime = externalTask.getLockExpirationTime();
+        return new BufferedTask(externalTask.getId(), externalTask.getPriority(),
+                lockExpirationTime != null ? lockExpirationTime.getTime() : Long.MAX_VALUE, execution, handBack);
+    }
+    
+    /**
+     * Wraps a plain command, which is ordered last and never handed back.
+     */
+    static BufferedTask of(Runnable command) {
+        return command instanceof BufferedTask buffered 
+                ? buffered 
+                : new BufferedTask(null, Long.MIN_VALUE, Long.MAX_VALUE, command, NOTHING);
+    }
+    
+    /**
+     * Wraps a command that is not a single fetched task, e.g. a batch, which is ordered last and
+     * given back through {@code handBack} if it never starts.
+     */
+    static BufferedTask of(Runnable command, Runnable handBack) {
+        return new BufferedTask(null, Long.MIN_VALUE, Long.MAX_VALUE, command, handBack);
+    }
+    
+    @Override
+    public void run() {
+        execution.run();
+    }
+    
+    void handBack() {
+        handBack.run();
+    }
+    
+    long remainingMillis(long now) {
+        return lockExpiresAt == Long.MAX_VALUE ? Long.MAX_VALUE : lockExpiresAt - now;
+    }
+    
+    String taskId() {
+        return taskId;
+    }
+}
@@ -0,0 +1,168 @@
+package com.jeevision.bpm.worker.execution;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.cibseven.bpm.client.exception.ConnectionLostException;
+import org.cibseven.bpm.client.exception.RestException;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reports tasks to the engine from its own threads, so a worker thread is free as soon as
+ * its method returns. Up to {@code concurrency} engine calls run at once and further reports
+ * wait in a bounded queue. Reports that do not fit, or arrive after shutdown, run on the
+ * overflow executor instead, never on the submitting thread, which may be an event loop.
+ * Workers are still held back, since a task stays admitted until it is reported.
+ * <p>
+ * An engine call failing with a transient error - lost connection, gateway or availability
+ * status, rate limiting - is repeated up to {@code maxAttempts} times with doubling pauses.
+ * At most half of the pipeline's threads repeat calls at once; beyond that a transient error
+ * is final, so an unreachable engine for one topic cannot stall the reports of the others.
+ *
+ * @author Slava Yermakov
+ * @email v.yermakov@gmail.com
+ */
+@Slf4j
+public class CompletionPipeline implements Executor, AutoCloseable {
+    
+    private final ThreadPoolExecutor executor;
+    private final Executor overflow;
+    private final int maxAttempts;
+    private final long retryDelay;
+    private final Semaphore retrying;
+    
+    public CompletionPipeline(int concurrency, int queueCapacity, int maxAttempts, long retryDelay) {
+        this(concurrency, queueCapacity, maxAttempts, retryDelay, null);
+    }
+    
+    /**
+     * @param overflow runs the reports the pipeline has no room for, {@code null} for a virtual thread each
+     */
+    public CompletionPipeline(int concurrency, int queueCapacity, int maxAttempts, long retryDelay, Executor overflow) {
+        this.executor = new ThreadPoolExecutor(concurrency, concurrency, 0, TimeUnit.MILLISECONDS, 
+                new ArrayBlockingQueue<>(queueCapacity), 
+                Thread.ofPlatform().name("bpm-completion-", 0).daemon(true).factory(), 
+                (report, pool) -> overflow(report));
+        this.overflow = overflow;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryDelay = retryDelay;
+        this.retrying = new Semaphore(Math.max(1, concurrency / 2));
+    }
+    
+    @Override
+    public void execute(Runnable report) {
+        executor.execute(report);
+    }
+    
+    /**
+     * A report is never discarded: it runs on a thread of its own when the overflow executor is shut down as well.
+     */
+    private void overflow(Runnable report) {
+        log.debug("Completion pipeline saturated or shut down, reporting from the overflow executor");
+        if (overflow != null) {
+            try {
+                overflow.execute(report);
+                return;
+            } catch (RejectedExecutionException e) {
+                log.debug("Overflow executor rejected a report, reporting from a virtual thread");
+            }
+        }
+        Thread.ofVirtual().name("bpm-completion-overflow").start(report);
+    }
+    
+    /**
+     * Performs an engine call, repeating it while it fails with a transient error
+     * and fewer than half of the pipeline's threads are busy repeating calls.
+     *
+     * @param onRetry notified before every repetition
+     */
+    public void call(Runnable engineCall, Runnable onRetry) {
+        long delay = retryDelay;
+        boolean retrySlot = false;
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    engineCall.run();
+                    return;
+                } catch (RuntimeException e) {
+                    if (attempt >= maxAttempts || !isTransient(e)) {
+                        throw e;
+                    }
+                    if (!retrySlot && !(retrySlot = retrying.tryAcquire())) {
+                        log.debug("Engine call failed transiently while other calls are being repeated, giving up: {}", 
+                                e.getMessage());
+                        throw e;
+                    }
+                    log.debug("Engine call failed transiently (attempt {}/{}), retrying in {}ms: {}", 
+                            attempt, maxAttempts, delay, e.getMessage());
+                    if (!pause(delay)) {
+                        throw e;
+                    }
+                    onRetry.run();
+                    delay *= 2;
+                }
+            }
+        } finally {
+            if (retrySlot) {
+                retrying.release();
+            }
+        }
+    }
+    
+    private static boolean pause(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+    
+    /**
+     * Errors after which the same call may succeed; anything the engine answered deliberately is final.
+     */
+    public static boolean isTransient(Throwable exception) {
+        if (exception instanceof ConnectionLostException) {
+            return true;
+        }
+        if (exception instanceof RestException restException) {
+            var status = restException.getHttpStatusCode();
+            return status != null && (status == 429 || status == 502 || status == 503 || status == 504);
+        }
+        return false;
+    }
+    
+    /**
+     * Reports waiting for a pipeline thread.
+     */
+    public int getQueued() {
+        return executor.getQueue().size();
+    }
+    
+    /**
+     * Finishes the reports already submitted, waiting at most {@code timeoutMillis}.
+     */
+    public void shutdown(long timeoutMillis) {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                log.warn("{} task reports did not finish within the shutdown timeout", getQueued() + executor.getActiveCount());
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+    
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,78 @@
+package com.jeevision.bpm.worker.execution;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.cibseven.bpm.client.backoff.BackoffStrategy;
+import org.cibseven.bpm.client.backoff.ErrorAwareBackoffStrategy;
+import org.cibseven.bpm.client.exception.ExternalTaskClientException;
+import org.cibseven.bpm.client.task.ExternalTask;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Backoff strategy of a client that notifies listeners once all tasks of a fetch were handed
+ * over to their handlers - the client consults its backoff strategy right after that - and
+ * then defers to the actual backoff. Fetch errors reach an {@link ErrorAwareBackoffStrategy}
+ * delegate as they would without the boundary.
+ *
+ * @author Slava Yermakov
+ * @email v.yermakov@gmail.com
+ */
+@Slf4j
+public class FetchBoundary implements ErrorAwareBackoffStrategy {
+    
+    private final BackoffStrategy delegate;
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    
+    /**
+     * @param delegate backoff applied after each fetch, {@code null} to fetch again right away
+     */
+    public FetchBoundary(BackoffStrategy delegate) {
+        this.delegate = delegate;
+    }
+    
+    /**
+     * Runs the listener on the fetch thread after every fetch.
+     */
+    public void onFetchHandedOver(Runnable listener) {
+        listeners.add(listener);
+    }
+    
+    @Override
+    public void reconfigure(List<ExternalTask> externalTasks) {
+        notifyListeners();
+        if (delegate != null) {
+            delegate.reconfigure(externalTasks);
+        }
+    }
+    
+    @Override
+    public void reconfigure(List<ExternalTask> externalTasks, ExternalTaskClientException error) {
+        notifyListeners();
+        if (delegate instanceof ErrorAwareBackoffStrategy errorAware) {
+            errorAware.reconfigure(externalTasks, error);
+        } else if (delegate != null) {
+            delegate.reconfigure(externalTasks);
+        }
+    }
+    
+    private void notifyListeners() {
+        for (var listener : listeners) {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                log.warn("Fetch listener failed", e);
+            }
+        }
+    }
+    
+    @Override
+    public long calculateBackoffTime() {
+        return delegate != null ? delegate.calculateBackoffTime() : 0;
+    }
+    
+    public BackoffStrategy getDelegate() {
+        return delegate;
+    }
+}
@@ -0,0 +1,176 @@
+package com.jeevision.bpm.worker.execution;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.cibseven.bpm.client.backoff.BackoffStrategy;
+import org.cibseven.bpm.client.backoff.ErrorAwareBackoffStrategy;
+import org.cibseven.bpm.client.backoff.ExponentialBackoffStrategy;
+import org.cibseven.bpm.client.exception.ExternalTaskClientException;
+import org.cibseven.bpm.client.task.ExternalTask;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sizes the fetches of one client to the number of tasks the worker can start before
+ * their lock expires, based on free admission slots, recent execution times and the
+ * number of handed over tasks still waiting for a thread.
+ * <p>
+ * The client requests a fixed {@code maxTasks} per fetchAndLock, so each fetch is granted
+ * a budget instead; tasks beyond it are returned to the engine right away, where idle
+ * workers can pick them up. While no task could be started in time, the fetch loop pauses
+ * until a slot is expected to free up, or while running tasks hold as much memory as allowed.
+ *
+ * @author Slava Yermakov
+ * @email v.yermakov@gmail.com
+ */
+@Slf4j
+public class FetchController implements ErrorAwareBackoffStrategy {
+    
+    private static final double SMOOTHING = 0.2;
+    
+    private final TaskAdmission admission;
+    private final int maxTasks;
+    private final long startWithinNanos;
+    private final long minPause;
+    private final long maxPause;
+    private final BackoffStrategy idleBackoff;
+    
+    private MemoryAdmission memoryAdmission;
+    
+    private final AtomicInteger budget;
+    private final AtomicInteger queued = new AtomicInteger();
+    private volatile long averageExecutionNanos;
+    private volatile boolean saturated;
+    
+    /**
+     * @param maxTasks tasks requested per fetch by the client
+     * @param startWithin time (ms) within which a fetched task must be able to start
+     * @param minPause shortest pause (ms) of a saturated fetch loop
+     * @param maxPause longest pause (ms) of a saturated fetch loop
+     */
+    public FetchController(TaskAdmission admission, int maxTasks, long startWithin, long minPause, long maxPause) {
+        this(admission, maxTasks, startWithin, minPause, maxPause, new ExponentialBackoffStrategy());
+    }
+    
+    /**
+     * @param idleBackoff backoff applied while the worker is not saturated, e.g. after empty fetches;
+     *                    {@code null} to fetch again right away
+     */
+    public FetchController(TaskAdmission admission, int maxTasks, long startWithin, long minPause, long maxPause, 
+            BackoffStrategy idleBackoff) {
+        this.admission = admission;
+        this.maxTasks = maxTasks;
+        this.startWithinNanos = TimeUnit.MILLISECONDS.toNanos(startWithin);
+        this.minPause = minPause;
+        this.maxPause = maxPause;
+        this.idleBackoff = idleBackoff;
+        this.budget = new AtomicInteger(maxTasks);
+    }
+    
+    /**
+     * Pauses fetching while running tasks hold as much memory as allowed.
+     */
+    public FetchController withMemoryAdmission(MemoryAdmission memoryAdmission) {
+        this.memoryAdmission = memoryAdmission;
+        return this;
+    }
+    
+    /**
+     * Claims a slot of the current fetch's budget for a fetched task.
+     *
+     * @return false if the task should be returned to the engine
+     */
+    public boolean tryAdmit() {
+        return budget.getAndDecrement() > 0;
+    }
+    
+    public void taskQueued() {
+        queued.incrementAndGet();
+    }
+    
+    public void taskDequeued() {
+        queued.decrementAndGet();
+    }
+    
+    public synchronized void taskCompleted(long executionNanos) {
+        long average = averageExecutionNanos;
+        averageExecutionNanos = average == 0 
+                ? executionNanos 
+                : Math.round(average + SMOOTHING * (executionNanos - average));
+    }
+    
+    /**
+     * Called by the client after the tasks of a fetch were handed over, before the next fetch.
+     */
+    @Override
+    public void reconfigure(List<ExternalTask> externalTasks) {
+        if (idleBackoff != null) {
+            idleBackoff.reconfigure(externalTasks);
+        }
+        resize();
+    }
+    
+    /**
+     * Same as {@link #reconfigure(List)}, passing a failed fetch's error on to an error-aware idle backoff.
+     */
+    @Override
+    public void reconfigure(List<ExternalTask> externalTasks, ExternalTaskClientException error) {
+        if (idleBackoff instanceof ErrorAwareBackoffStrategy errorAware) {
+            errorAware.reconfigure(externalTasks, error);
+        } else if (idleBackoff != null) {
+            idleBackoff.reconfigure(externalTasks);
+        }
+        resize();
+    }
+    
+    private void resize() {
+        int next = startable();
+        budget.set(next);
+        if (next == 0 && !saturated) {
+            log.debug("Worker saturated ({} tasks in flight, {} waiting), pausing fetches", admission.inFlight(), queued.get());
+        }
+        saturated = next == 0;
+    }
+    
+    @Override
+    public long calculateBackoffTime() {
+        if (!saturated) {
+            return idleBackoff != null ? idleBackoff.calculateBackoffTime() : 0;
+        }
+        // Roughly the time until the next running task finishes
+        int running = Math.max(1, admission.inFlight() - queued.get());
+        long untilNextSlot = TimeUnit.NANOSECONDS.toMillis(averageExecutionNanos / running);
+        return Math.min(maxPause, Math.max(minPause, untilNextSlot));
+    }
+    
+    /**
+     * Free slots plus the slots expected to free up within {@code startWithin}, minus the
+     * tasks already waiting for them.
+     */
+    int startable() {
+        if (memoryAdmission != null && memoryAdmission.isUnderPressure()) {
+            return 0;
+        }
+        int waiting = queued.get();
+        int running = Math.max(0, admission.inFlight() - waiting);
+        long average = averageExecutionNanos;
+        long completions = average > 0 ? running * startWithinNanos / average : 0;
+        
+        long startable = admission.available() + Math.min(completions, admission.capacity()) - waiting;
+        return (int) Math.max(0, Math.min(maxTasks, startable));
+    }
+    
+    public boolean isSaturated() {
+        return saturated;
+    }
+    
+    public int getQueued() {
+        return queued.get();
+    }
+    
+    public long getAverageExecutionMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(averageExecutionNanos);
+    }
+}
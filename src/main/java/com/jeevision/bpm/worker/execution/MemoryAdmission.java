@@ -0,0 +1,79 @@
+package com.jeevision.bpm.worker.execution;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps the estimated variable payload held by running tasks and stops admitting tasks while
+ * the heap is nearly full, so a burst of large tasks cannot push the worker into GC thrashing.
+ * A task is always admitted when nothing else is in flight, so an oversized payload still runs.
+ *
+ * @author Slava Yermakov
+ * @email v.yermakov@gmail.com
+ */
+public class MemoryAdmission {
+    
+    private final long maxBytesInFlight;
+    private final double maxHeapUsage;
+    private final MemoryMXBean memory;
+    private final AtomicLong bytesInFlight = new AtomicLong();
+    
+    /**
+     * @param maxBytesInFlight estimated payload bytes of running tasks above which no task is admitted
+     * @param maxHeapUsage fraction of the maximum heap above which no task is admitted
+     */
+    public MemoryAdmission(long maxBytesInFlight, double maxHeapUsage) {
+        this(maxBytesInFlight, maxHeapUsage, ManagementFactory.getMemoryMXBean());
+    }
+    
+    MemoryAdmission(long maxBytesInFlight, double maxHeapUsage, MemoryMXBean memory) {
+        if (maxBytesInFlight < 1) {
+            throw new IllegalArgumentException("Max bytes in flight must be positive, got " + maxBytesInFlight);
+        }
+        this.maxBytesInFlight = maxBytesInFlight;
+        this.maxHeapUsage = maxHeapUsage;
+        this.memory = memory;
+    }
+    
+    /**
+     * @return false if the task should not run now; a successful acquire must be released
+     */
+    public boolean tryAcquire(long bytes) {
+        while (true) {
+            long current = bytesInFlight.get();
+            if (current > 0 && (current + bytes > maxBytesInFlight || isHeapExhausted())) {
+                return false;
+            }
+            if (bytesInFlight.compareAndSet(current, current + bytes)) {
+                return true;
+            }
+        }
+    }
+    
+    public void release(long bytes) {
+        bytesInFlight.addAndGet(-bytes);
+    }
+    
+    /**
+     * @return whether further fetches would only be turned away
+     */
+    public boolean isUnderPressure() {
+        long current = bytesInFlight.get();
+        return current > 0 && (current >= maxBytesInFlight || isHeapExhausted());
+    }
+    
+    public long getBytesInFlight() {
+        return bytesInFlight.get();
+    }
+    
+    public double getHeapUsage() {
+        var usage = memory.getHeapMemoryUsage();
+        long max = usage.getMax() > 0 ? usage.getMax() : usage.getCommitted();
+        return max > 0 ? (double) usage.getUsed() / max : 0;
+    }
+    
+    private boolean isHeapExhausted() {
+        return maxHeapUsage < 1 && getHeapUsage() >= maxHeapUsage;
+    }
+}
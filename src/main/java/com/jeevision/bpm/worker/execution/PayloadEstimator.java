@@ -0,0 +1,95 @@
+package com.jeevision.bpm.worker.execution;
+
+import java.util.Collection;
+import java.util.Map;
+
+import org.cibseven.bpm.client.task.ExternalTask;
+import org.cibseven.bpm.engine.variable.VariableMap;
+import org.cibseven.bpm.engine.variable.value.ObjectValue;
+import org.cibseven.bpm.engine.variable.value.TypedValue;
+
+/**
+ * Rough heap footprint of the variables a task was fetched with. Object values are
+ * measured in their serialized form, so estimating never deserializes a payload.
+ *
+ * @author Slava Yermakov
+ * @email v.yermakov@gmail.com
+ */
+public final class PayloadEstimator {
+    
+    private static final long ENTRY_OVERHEAD = 48;
+    private static final long SCALAR = 16;
+    private static final long UNKNOWN = 64;
+    private static final int MAX_DEPTH = 8;
+    
+    private PayloadEstimator() {
+    }
+    
+    public static long estimate(ExternalTask externalTask) {
+        VariableMap variables = externalTask.getAllVariablesTyped(false);
+        if (variables == null) {
+            return 0;
+        }
+        
+        long bytes = 0;
+        for (var name : variables.keySet()) {
+            bytes += ENTRY_OVERHEAD + chars(name) + estimate(variables.getValueTyped(name));
+        }
+        return bytes;
+    }
+    
+    static long estimate(TypedValue typedValue) {
+        if (typedValue == null) {
+            return 0;
+        }
+        if (typedValue instanceof ObjectValue objectValue && !objectValue.isDeserialized()) {
+            return chars(objectValue.getValueSerialized());
+        }
+        return estimateValue(typedValue.getValue(), 0);
+    }
+    
+    private static long estimateValue(Object value, int depth) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof CharSequence text) {
+            return chars(text);
+        }
+        if (value instanceof byte[] bytes) {
+            return SCALAR + bytes.length;
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character) {
+            return SCALAR;
+        }
+        if (depth >= MAX_DEPTH) {
+            return UNKNOWN;
+        }
+        if (value instanceof Map<?, ?> map) {
+            long bytes = SCALAR;
+            for (var entry : map.entrySet()) {
+                bytes += ENTRY_OVERHEAD + estimateValue(entry.getKey(), depth + 1) + estimateValue(entry.getValue(), depth + 1);
+            }
+            return bytes;
+        }
+        if (value instanceof Collection<?> collection) {
+            long bytes = SCALAR;
+            for (var element : collection) {
+                bytes += estimateValue(element, depth + 1);
+            }
+            return bytes;
+        }
+        if (value instanceof Object[] array) {
+            long bytes = SCALAR;
+            for (var element : array) {
+                bytes += estimateValue(element, depth + 1);
+            }
+            return bytes;
+        }
+        return UNKNOWN;
+    }
+    
+    private static long chars(CharSequence text) {
+        // Strings are counted as UTF-16, the worst case of compact strings
+        return text != null ? 40 + 2L * text.length() : 0;
+    }
+}
@@ -0,0 +1,52 @@
+package com.jeevision.bpm.worker.execution;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Shared, bounded admission layer for fetched tasks.
+ * A permit is held from the moment a task is handed over by the client until
+ * its execution has finished, so the fetch loop blocks once the worker is saturated.
+ *
+ * @author Slava Yermakov
+ * @email v.yermakov@gmail.com
+ */
+public class TaskAdmission {
+    
+    private final int capacity;
+    private final Semaphore permits;
+    
+    public TaskAdmission(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Admission capacity must be positive, got " + capacity);
+        }
+        this.capacity = capacity;
+        this.permits = new Semaphore(capacity);
+    }
+    
+    public void acquire() throws InterruptedException {
+        permits.acquire();
+    }
+    
+    /**
+     * @return whether a permit was taken without waiting for one
+     */
+    public boolean tryAcquire() {
+        return permits.tryAcquire();
+    }
+    
+    public void release() {
+        permits.release();
+    }
+    
+    public int capacity() {
+        return capacity;
+    }
+    
+    public int available() {
+        return permits.availablePermits();
+    }
+    
+    public int inFlight() {
+        return capacity - permits.availablePermits();
+    }
+}
@@ -0,0 +1,132 @@
+package com.jeevision.bpm.worker.execution;
+
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.cibseven.bpm.client.task.ExternalTask;
+import org.cibseven.bpm.client.task.ExternalTaskHandler;
+import org.cibseven.bpm.client.task.ExternalTaskService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Hands fetched tasks over to an executor so the client's fetch thread keeps polling
+ * while worker methods run. Admission blocks the fetch thread once the shared
+ * in-flight limit is reached, which holds back further fetches until a slot frees up.
+ *
+ * @author Slava Yermakov
+ * @email v.yermakov@gmail.com
+ */
+@Slf4j
+public class TaskDispatcher implements ExternalTaskHandler {
+    
+    private final ExternalTaskHandler delegate;
+    private final Executor executor;
+    private final TaskAdmission admission;
+    private final FetchController fetchController;
+    private final MemoryAdmission memoryAdmission;
+    
+    public TaskDispatcher(ExternalTaskHandler delegate, Executor executor, TaskAdmission admission) {
+        this(delegate, executor, admission, null, null);
+    }
+    
+    public TaskDispatcher(ExternalTaskHandler delegate, Executor executor, TaskAdmission admission, 
+            FetchController fetchController, MemoryAdmission memoryAdmission) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.admission = admission;
+        this.fetchController = fetchController;
+        this.memoryAdmission = memoryAdmission;
+    }
+    
+    @Override
+    public void execute(ExternalTask externalTask, ExternalTaskService externalTaskService) {
+        if (fetchController != null && !fetchController.tryAdmit()) {
+            log.debug("Task {} could not start before its lock expires, returning it to the engine", externalTask.getId());
+            externalTaskService.unlock(externalTask);
+            return;
+        }
+        
+        long payload = memoryAdmission != null ? PayloadEstimator.estimate(externalTask) : 0;
+        if (memoryAdmission != null && !memoryAdmission.tryAcquire(payload)) {
+            log.debug("Task {} with ~{} bytes of variables does not fit in memory now, returning it to the engine", 
+                    externalTask.getId(), payload);
+            externalTaskService.unlock(externalTask);
+            return;
+        }
+        
+        try {
+            admission.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            releaseMemory(payload);
+            log.debug("Interrupted while waiting for admission of task {}, returning it to the engine", externalTask.getId());
+            externalTaskService.unlock(externalTask);
+            return;
+        }
+        
+        if (fetchController != null) {
+            fetchController.taskQueued();
+        }
+        try {
+            executor.execute(BufferedTask.of(externalTask, () -> run(externalTask, externalTaskService, payload), 
+                    () -> returnTask(externalTask, externalTaskService, payload)));
+        } catch (RejectedExecutionException e) {
+            log.warn("Executor rejected task {} for topic {}, returning it to the engine", 
+                    externalTask.getId(), externalTask.getTopicName());
+            returnTask(externalTask, externalTaskService, payload);
+        }
+    }
+    
+    /**
+     * Gives a task that was admitted but never started back to the engine.
+     */
+    private void returnTask(ExternalTask externalTask, ExternalTaskService externalTaskService, long payload) {
+        if (fetchController != null) {
+            fetchController.taskDequeued();
+        }
+        releaseMemory(payload);
+        admission.release();
+        externalTaskService.unlock(externalTask);
+    }
+    
+    /**
+     * Tasks of an {@link AsyncTaskHandler} stay admitted until they settle, the thread is free as soon as it returns.
+     */
+    private void run(ExternalTask externalTask, ExternalTaskService externalTaskService, long payload) {
+        if (fetchController != null) {
+            fetchController.taskDequeued();
+        }
+        long started = System.nanoTime();
+        CompletionStage<?> pending = null;
+        try {
+            if (delegate instanceof AsyncTaskHandler asyncHandler) {
+                // The estimate travels with the task, so it is not repeated for the payload metric
+                pending = asyncHandler.executeAsync(externalTask, externalTaskService, memoryAdmission != null ? payload : -1);
+            } else {
+                delegate.execute(externalTask, externalTaskService);
+            }
+        } finally {
+            if (pending == null) {
+                finish(started, payload);
+            } else {
+                pending.whenComplete((result, error) -> finish(started, payload));
+            }
+        }
+    }
+    
+    private void finish(long started, long payload) {
+        if (fetchController != null) {
+            fetchController.taskCompleted(System.nanoTime() - started);
+        }
+        releaseMemory(payload);
+        admission.release();
+    }
+    
+    private void releaseMemory(long payload) {
+        if (memoryAdmission != null) {
+            memoryAdmission.release(payload);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.jeevision.bpm.worker.execution;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Isolated execution pool of a single topic.
+ * At most {@code concurrency} tasks of the topic run at once; further tasks wait in a
+ * bounded queue. When the queue is full the task is rejected, so a burst on one topic
+ * cannot claim the shared admission capacity of the whole worker.
+ * <p>
+ * A prioritized bulkhead doubles as prefetch buffer: waiting tasks start by task priority,
+ * then by lock expiry, and tasks whose lock is about to expire are handed back to the engine
+ * instead of being started too late.
+ *
+ * @author Slava Yermakov
+ * @email v.yermakov@gmail.com
+ */
+@Slf4j
+public class TopicBulkhead implements Executor, AutoCloseable {
+    
+    private final String topic;
+    private final ExecutorService executor;
+    private final int concurrency;
+    private final Semaphore slots;
+    private final BlockingQueue<Runnable> queue;
+    private final int queueCapacity;
+    private final boolean prioritized;
+    private final long handBackBelow;
+    
+    private TopicBulkhead(String topic, ExecutorService executor, int concurrency, int queueCapacity, long handBackBelow) {
+        this.topic = topic;
+        this.executor = executor;
+        this.concurrency = concurrency;
+        this.slots = new Semaphore(concurrency);
+        this.queueCapacity = queueCapacity;
+        this.prioritized = handBackBelow >= 0;
+        this.handBackBelow = handBackBelow;
+        this.queue = prioritized 
+                ? new PriorityBlockingQueue<>(queueCapacity, (a, b) -> BufferedTask.ORDER.compare((BufferedTask) a, (BufferedTask) b))
+                : new ArrayBlockingQueue<>(queueCapacity);
+    }
+    
+    public static TopicBulkhead virtualThreads(String topic, int concurrency, int queueCapacity) {
+        return virtualThreads(topic, concurrency, queueCapacity, -1);
+    }
+    
+    public static TopicBulkhead platformThreads(String topic, int concurrency, int queueCapacity) {
+        return platformThreads(topic, concurrency, queueCapacity, -1);
+    }
+    
+    /**
+     * @param handBackBelow remaining lock time (ms) below which a waiting task is handed back;
+     *                      non-negative values make the bulkhead prioritized
+     */
+    public static TopicBulkhead virtualThreads(String topic, int concurrency, int queueCapacity, long handBackBelow) {
+        var threadFactory = Thread.ofVirtual().name("bpm-" + topic + "-", 0).factory();
+        return new TopicBulkhead(topic, Executors.newThreadPerTaskExecutor(threadFactory), concurrency, queueCapacity, handBackBelow);
+    }
+    
+    /**
+     * @param handBackBelow remaining lock time (ms) below which a waiting task is handed back;
+     *                      non-negative values make the bulkhead prioritized
+     */
+    public static TopicBulkhead platformThreads(String topic, int concurrency, int queueCapacity, long handBackBelow) {
+        var threadFactory = Thread.ofPlatform().name("bpm-" + topic + "-", 0).daemon(true).factory();
+        return new TopicBulkhead(topic, Executors.newFixedThreadPool(concurrency, threadFactory), concurrency, queueCapacity, 
+                handBackBelow);
+    }
+    
+    /**
+     * Wraps a command that is not a single fetched task, e.g. a batch, so the bulkhead gives it
+     * back through {@code handBack} instead of dropping it when it can no longer start.
+     */
+    public static Runnable returnable(Runnable command, Runnable handBack) {
+        return BufferedTask.of(command, handBack);
+    }
+    
+    @Override
+    public void execute(Runnable command) {
+        if (!prioritized) {
+            if (!queue.offer(command)) {
+                throw new RejectedExecutionException("Bulkhead of topic '" + topic + "' is full");
+            }
+        } else {
+            // The priority queue is unbounded; a topic is fed by a single fetch thread, so the
+            // size cannot grow between the check and the offer
+            if (queue.size() >= queueCapacity) {
+                throw new RejectedExecutionException("Bulkhead of topic '" + topic + "' is full");
+            }
+            queue.offer(BufferedTask.of(command));
+        }
+        drain();
+    }
+    
+    private void drain() {
+        while (!queue.isEmpty() && slots.tryAcquire()) {
+            Runnable next = queue.poll();
+            if (next == null) {
+                slots.release();
+                continue;
+            }
+            if (prioritized && isExpiring((BufferedTask) next, System.currentTimeMillis())) {
+                slots.release();
+                handBack((BufferedTask) next);
+                continue;
+            }
+            
+            try {
+                executor.execute(() -> {
+                    try {
+                        next.run();
+                    } finally {
+                        slots.release();
+                        drain();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                slots.release();
+                discard(next);
+            }
+        }
+    }
+    
+    /**
+     * Hands back waiting tasks whose lock is about to expire. Called periodically, so such tasks
+     * are returned to the engine even while no slot frees up.
+     *
+     * @return number of tasks handed back
+     */
+    public int handBackExpiring() {
+        if (!prioritized) {
+            return 0;
+        }
+        
+        int handedBack = 0;
+        long now = System.currentTimeMillis();
+        for (var waiting : queue) {
+            var buffered = (BufferedTask) waiting;
+            if (isExpiring(buffered, now) && queue.remove(buffered)) {
+                handBack(buffered);
+                handedBack++;
+            }
+        }
+        return handedBack;
+    }
+    
+    private boolean isExpiring(BufferedTask buffered, long now) {
+        return buffered.remainingMillis(now) < handBackBelow;
+    }
+    
+    private void handBack(BufferedTask buffered) {
+        log.debug("Task {} of topic '{}' could not start before its lock runs out, handing it back", buffered.taskId(), topic);
+        returnToEngine(buffered);
+    }
+    
+    /**
+     * A queued task that will never start is unlocked, which also releases its admission;
+     * a {@link #returnable(Runnable, Runnable)} command gives back everything it holds.
+     */
+    private void discard(Runnable dropped) {
+        if (dropped instanceof BufferedTask buffered) {
+            log.debug("{} of topic '{}' will not start, its executor is shut down; handing it back", 
+                    describe(buffered), topic);
+            returnToEngine(buffered);
+        } else {
+            log.warn("Dropping queued task of topic '{}', its executor is shut down", topic);
+        }
+    }
+    
+    private void returnToEngine(BufferedTask buffered) {
+        try {
+            buffered.handBack();
+        } catch (RuntimeException e) {
+            log.warn("Could not hand back {} of topic '{}'", describe(buffered), topic, e);
+        }
+    }
+    
+    private static String describe(BufferedTask buffered) {
+        return buffered.taskId() != null ? "Task " + buffered.taskId() : "Command";
+    }
+    
+    public boolean isPrioritized() {
+        return prioritized;
+    }
+    
+    public String getTopic() {
+        return topic;
+    }
+    
+    public int getConcurrency() {
+        return concurrency;
+    }
+    
+    public int getRunning() {
+        return concurrency - slots.availablePermits();
+    }
+    
+    public int getQueued() {
+        return queue.size();
+    }
+    
+    public void shutdown() {
+        executor.shutdown();
+    }
+    
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+    
+    @Override
+    public void close() {
+        List<Runnable> dropped = new ArrayList<>();
+        queue.drainTo(dropped);
+        executor.shutdownNow();
+        dropped.forEach(this::discard);
+    }
+}
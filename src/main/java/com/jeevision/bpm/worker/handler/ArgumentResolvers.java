@@ -0,0 +1,225 @@
+package com.jeevision.bpm.worker.handler;
+
+import java.util.List;
+
+import org.cibseven.bpm.client.task.ExternalTask;
+import org.cibseven.bpm.engine.variable.value.ObjectValue;
+import org.cibseven.bpm.engine.variable.value.TypedValue;
+import org.springframework.beans.BeanUtils;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.jeevision.bpm.worker.model.ArgumentResolver;
+import com.jeevision.bpm.worker.model.TaskDeadline;
+import com.jeevision.bpm.worker.model.WorkerMethod;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compiles worker method parameters into specialized {@link ArgumentResolver}s.
+ * Everything that only depends on the parameter declaration - the injection kind,
+ * the default value and the conversion strategy - is decided here, once.
+ * <p>
+ * Structured parameters (beans, records, collections, maps, arrays) are converted using
+ * the parameter's full generic {@link JavaType} and a cached {@link ObjectReader}, so a
+ * {@code List<Item>} receives {@code Item} elements and serialized JSON variables are
+ * deserialized straight into the target type without an intermediate {@code Map}.
+ *
+ * @author Slava Yermakov
+ * @email v.yermakov@gmail.com
+ */
+@Slf4j
+public final class ArgumentResolvers {
+    
+    private ArgumentResolvers() {
+    }
+    
+    public static ArgumentResolver[] compile(List<WorkerMethod.ParameterInfo> parameters, ObjectMapper objectMapper) {
+        var resolvers = new ArgumentResolver[parameters.size()];
+        for (int i = 0; i < resolvers.length; i++) {
+            resolvers[i] = compile(parameters.get(i), objectMapper);
+        }
+        return resolvers;
+    }
+    
+    public static ArgumentResolver compile(WorkerMethod.ParameterInfo paramInfo, ObjectMapper objectMapper) {
+        if (ExternalTask.class.equals(paramInfo.getType())) {
+            return externalTask -> externalTask;
+        }
+        if (TaskDeadline.class.equals(paramInfo.getType())) {
+            return TaskDeadline::of;
+        }
+        
+        var javaType = paramInfo.getJavaType() != null 
+                ? paramInfo.getJavaType() 
+                : objectMapper.getTypeFactory().constructType(paramInfo.getType());
+        
+        if (isStructured(javaType)) {
+            var converter = new StructuredConverter(javaType, objectMapper, objectMapper.readerFor(javaType));
+            var defaultValue = StringUtils.hasText(paramInfo.getDefaultValue())
+                    ? converter.convert(paramInfo.getDefaultValue())
+                    : null;
+            return new StructuredVariableResolver(paramInfo.getVariableName(), paramInfo.isRequired(), defaultValue, converter);
+        }
+        
+        var converter = scalarConverterFor(paramInfo.getType(), objectMapper);
+        var defaultValue = StringUtils.hasText(paramInfo.getDefaultValue())
+                ? converter.convert(paramInfo.getDefaultValue())
+                : null;
+        
+        return new VariableResolver(paramInfo.getVariableName(), paramInfo.isRequired(), defaultValue, converter);
+    }
+    
+    private static boolean isStructured(JavaType javaType) {
+        var rawClass = javaType.getRawClass();
+        return !Object.class.equals(rawClass) && !BeanUtils.isSimpleValueType(rawClass);
+    }
+    
+    private static ValueConverter scalarConverterFor(Class<?> targetType, ObjectMapper objectMapper) {
+        if (Object.class.equals(targetType)) {
+            return value -> value;
+        }
+        
+        var boxedType = ClassUtils.resolvePrimitiveIfNecessary(targetType);
+        return value -> {
+            if (boxedType.isInstance(value)) {
+                return value;
+            }
+            try {
+                return objectMapper.convertValue(value, targetType);
+            } catch (Exception e) {
+                log.warn("Could not convert value {} to type {}: {}", value, targetType, e.getMessage());
+                return value;
+            }
+        };
+    }
+    
+    @FunctionalInterface
+    interface ValueConverter {
+        Object convert(Object value);
+    }
+    
+    private record VariableResolver(String variableName, boolean required, Object defaultValue, 
+            ValueConverter converter) implements ArgumentResolver {
+        
+        @Override
+        public Object resolve(ExternalTask externalTask) {
+            Object value = externalTask.getVariable(variableName);
+            if (value != null) {
+                return converter.convert(value);
+            }
+            if (required) {
+                throw new IllegalArgumentException("Required variable '" + variableName + "' not found");
+            }
+            return defaultValue;
+        }
+    }
+    
+    /**
+     * Converts values into a structured target type. Raw JSON is read directly with the cached
+     * reader; already deserialized values only go through Jackson when their runtime type or
+     * generic content does not already match.
+     */
+    private static final class StructuredConverter implements ValueConverter {
+        
+        private final JavaType javaType;
+        private final ObjectMapper objectMapper;
+        private final ObjectReader reader;
+        private final boolean passThroughInstances;
+        
+        StructuredConverter(JavaType javaType, ObjectMapper objectMapper, ObjectReader reader) {
+            this.javaType = javaType;
+            this.objectMapper = objectMapper;
+            this.reader = reader;
+            this.passThroughInstances = hasOnlyObjectContent(javaType);
+        }
+        
+        /**
+         * Untyped content needs no conversion; for maps this includes {@code String} keys,
+         * which is what every deserialized JSON object has.
+         */
+        private static boolean hasOnlyObjectContent(JavaType javaType) {
+            if (javaType.isMapLikeType()) {
+                var keyType = javaType.getKeyType().getRawClass();
+                return (String.class.equals(keyType) || Object.class.equals(keyType))
+                        && Object.class.equals(javaType.getContentType().getRawClass());
+            }
+            for (int i = 0; i < javaType.containedTypeCount(); i++) {
+                if (!Object.class.equals(javaType.containedType(i).getRawClass())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        @Override
+        public Object convert(Object value) {
+            if (value instanceof String json && looksLikeJson(json)) {
+                return readJson(json);
+            }
+            if (passThroughInstances && javaType.getRawClass().isInstance(value)) {
+                return value;
+            }
+            try {
+                return objectMapper.convertValue(value, javaType);
+            } catch (Exception e) {
+                log.warn("Could not convert value {} to type {}: {}", value, javaType, e.getMessage());
+                return value;
+            }
+        }
+        
+        Object readJson(String json) {
+            try {
+                return reader.readValue(json);
+            } catch (Exception e) {
+                log.warn("Could not read JSON value as type {}: {}", javaType, e.getMessage());
+                return json;
+            }
+        }
+        
+        private static boolean looksLikeJson(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (!Character.isWhitespace(c)) {
+                    return c == '{' || c == '[';
+                }
+            }
+            return false;
+        }
+    }
+    
+    private record StructuredVariableResolver(String variableName, boolean required, Object defaultValue, 
+            StructuredConverter converter) implements ArgumentResolver {
+        
+        @Override
+        public Object resolve(ExternalTask externalTask) {
+            // Read the variable without letting the client deserialize object values on its own
+            TypedValue typedValue = externalTask.getVariableTyped(variableName, false);
+            
+            if (typedValue instanceof ObjectValue objectValue && !objectValue.isDeserialized()) {
+                String serialized = objectValue.getValueSerialized();
+                if (serialized != null && isJsonFormat(objectValue.getSerializationDataFormat())) {
+                    return converter.readJson(serialized);
+                }
+                // Non-JSON serialization formats are left to the client's own deserializers
+                typedValue = externalTask.getVariableTyped(variableName, true);
+            }
+            
+            Object value = typedValue != null ? typedValue.getValue() : null;
+            if (value != null) {
+                return converter.convert(value);
+            }
+            if (required) {
+                throw new IllegalArgumentException("Required variable '" + variableName + "' not found");
+            }
+            return defaultValue;
+        }
+        
+        private static boolean isJsonFormat(String serializationDataFormat) {
+            return serializationDataFormat != null && serializationDataFormat.contains("json");
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.jeevision.bpm.worker.handler;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.util.ClassUtils;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Recognizes worker methods that return a {@link CompletionStage} or, with Reactor on the
+ * classpath, a {@link Mono}. The task of such a method is reported once the result settles,
+ * no thread waits for it in the meantime.
+ *
+ * @author Slava Yermakov
+ * @email v.yermakov@gmail.com
+ */
+public final class AsyncResults {
+    
+    private static final boolean REACTOR_PRESENT = ClassUtils.isPresent("reactor.core.publisher.Mono", 
+            AsyncResults.class.getClassLoader());
+    
+    private AsyncResults() {
+    }
+    
+    /**
+     * @return the pending result, {@code null} if the method returned its result synchronously
+     */
+    public static CompletionStage<?> adapt(Object result) {
+        if (result instanceof CompletionStage<?> stage) {
+            return stage;
+        }
+        return REACTOR_PRESENT && result != null ? Reactor.adapt(result) : null;
+    }
+    
+    public static boolean isAsync(Class<?> returnType) {
+        return CompletionStage.class.isAssignableFrom(returnType) 
+                || REACTOR_PRESENT && Reactor.isMono(returnType);
+    }
+    
+    /**
+     * Type of the value a worker method eventually produces, used to compile its result flattener.
+     */
+    public static Class<?> valueType(Method method) {
+        var returnType = method.getReturnType();
+        if (!isAsync(returnType)) {
+            return returnType;
+        }
+        var type = ResolvableType.forMethodReturnType(method);
+        var async = CompletionStage.class.isAssignableFrom(returnType) 
+                ? type.as(CompletionStage.class) 
+                : Reactor.asMono(type);
+        return async.getGeneric(0).resolve(Object.class);
+    }
+    
+    /**
+     * Strips the wrappers a future puts around the exception the worker failed with.
+     */
+    public static Throwable unwrap(Throwable exception) {
+        var cause = exception;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+    
+    /**
+     * Kept apart so Reactor classes are only loaded when Reactor is present.
+     */
+    private static final class Reactor {
+        
+        static CompletionStage<?> adapt(Object result) {
+            return result instanceof Mono<?> mono ? mono.toFuture() : null;
+        }
+        
+        static boolean isMono(Class<?> returnType) {
+            return Mono.class.isAssignableFrom(returnType);
+        }
+        
+        static ResolvableType asMono(ResolvableType type) {
+            return type.as(Mono.class);
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.jeevision.bpm.worker.handler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.cibseven.bpm.client.task.ExternalTask;
+import org.cibseven.bpm.client.task.ExternalTaskHandler;
+import org.cibseven.bpm.client.task.ExternalTaskService;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jeevision.bpm.worker.execution.MemoryAdmission;
+import com.jeevision.bpm.worker.execution.PayloadEstimator;
+import com.jeevision.bpm.worker.execution.TaskAdmission;
+import com.jeevision.bpm.worker.execution.TopicBulkhead;
+import com.jeevision.bpm.worker.lock.LockHeartbeat;
+import com.jeevision.bpm.worker.metrics.TopicMetrics;
+import com.jeevision.bpm.worker.metrics.TopicMetrics.Outcome;
+import com.jeevision.bpm.worker.model.WorkerInvoker;
+import com.jeevision.bpm.worker.model.TaskDeadline;
+import com.jeevision.bpm.worker.model.WorkerMethod;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Collects the tasks of a batch worker's topic while the client hands over a fetch and
+ * passes them to the worker method in one call once the fetch was handed over completely.
+ * Each task is then completed or failed on its own through the topic's {@link BpmTaskHandler}.
+ * <p>
+ * Every task of a batch is admitted on its own, like a single task, and holds its admission
+ * until it is reported. While the batch runs, the reporter's lock heartbeat keeps the locks of
+ * its tasks alive and its deadline watchdog interrupts a batch that overruns the earliest lock.
+ *
+ * @author Slava Yermakov
+ * @email v.yermakov@gmail.com
+ */
+@Slf4j
+public class BatchTaskHandler implements ExternalTaskHandler {
+    
+    private final BpmTaskHandler reporter;
+    private final WorkerInvoker invoker;
+    private final ObjectMapper objectMapper;
+    private final JavaType elementType;
+    private final Executor executor;
+    private final String topic;
+    private TaskAdmission admission;
+    private MemoryAdmission memoryAdmission;
+    
+    /** Only touched by the client's fetch thread */
+    private List<PendingTask> pending = new ArrayList<>();
+    
+    /**
+     * @param reporter handler of the same worker method, used to report each task
+     * @param executor runs a batch, e.g. the topic's bulkhead or {@code Runnable::run} for the fetch thread
+     */
+    public BatchTaskHandler(BpmTaskHandler reporter, WorkerMethod workerMethod, ObjectMapper objectMapper, Executor executor) {
+        this.reporter = reporter;
+        this.invoker = workerMethod.getInvoker() != null 
+                ? workerMethod.getInvoker() 
+                : WorkerInvoker.of(workerMethod.getBean(), workerMethod.getMethod());
+        this.objectMapper = objectMapper;
+        this.elementType = workerMethod.getBatchElementType();
+        this.executor = executor;
+        this.topic = workerMethod.getTopic();
+    }
+    
+    /**
+     * Admits each task of a batch through the gates single tasks pass.
+     */
+    public BatchTaskHandler withAdmission(TaskAdmission admission, MemoryAdmission memoryAdmission) {
+        this.admission = admission;
+        this.memoryAdmission = memoryAdmission;
+        return this;
+    }
+    
+    @Override
+    public void execute(ExternalTask externalTask, ExternalTaskService externalTaskService) {
+        long payload = memoryAdmission != null ? PayloadEstimator.estimate(externalTask) : 0;
+        if (memoryAdmission != null && !memoryAdmission.tryAcquire(payload)) {
+            log.debug("Task {} with ~{} bytes of variables does not fit in memory now, returning it to the engine", 
+                    externalTask.getId(), payload);
+            externalTaskService.unlock(externalTask);
+            return;
+        }
+        
+        if (admission != null && !admission.tryAcquire()) {
+            // The collected tasks hold permits until they run, so start them before waiting for one
+            flush();
+            try {
+                admission.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                releaseMemory(payload);
+                log.debug("Interrupted while waiting for admission of task {}, returning it to the engine", externalTask.getId());
+                externalTaskService.unlock(externalTask);
+                return;
+            }
+        }
+        pending.add(new PendingTask(externalTask, externalTaskService, payload));
+    }
+    
+    /**
+     * Dispatches the tasks collected from the fetch that was just handed over; called on the fetch thread.
+     */
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        
+        var batch = pending;
+        pending = new ArrayList<>();
+        try {
+            // A bulkhead that drops the batch on shutdown hands it back like a single task
+            executor.execute(TopicBulkhead.returnable(() -> process(batch), () -> returnToEngine(batch)));
+        } catch (RejectedExecutionException e) {
+            log.warn("Executor rejected a batch of {} tasks for topic {}, returning them to the engine", batch.size(), topic);
+            returnToEngine(batch);
+        }
+    }
+    
+    /**
+     * Gives a batch that was admitted but never started back to the engine.
+     */
+    private void returnToEngine(List<PendingTask> batch) {
+        batch.forEach(task -> {
+            release(task);
+            task.service().unlock(task.task());
+        });
+    }
+    
+    void process(List<PendingTask> batch) {
+        var metrics = reporter.metrics();
+        batch.forEach(task -> metrics.taskStarted());
+        var deadline = reporter.tracksDeadlines() ? earliestDeadline(batch) : null;
+        batch.forEach(task -> task.lease = reporter.trackLock(task.task(), task.service(), deadline));
+        
+        // A task whose variables cannot be bound fails alone instead of failing the whole batch
+        var admitted = new ArrayList<PendingTask>(batch.size());
+        var inputs = new ArrayList<Object>(batch.size());
+        for (var task : batch) {
+            try {
+                inputs.add(elementType != null 
+                        ? objectMapper.convertValue(task.task().getAllVariables(), elementType) 
+                        : task.task());
+                admitted.add(task);
+            } catch (RuntimeException e) {
+                fail(metrics, task, e);
+            }
+        }
+        if (admitted.isEmpty()) {
+            return;
+        }
+        
+        log.debug("Executing batch of {} tasks for topic {}", admitted.size(), topic);
+        Object result;
+        long invoked = System.nanoTime();
+        var watch = deadline != null ? reporter.watchDeadline("batch of " + topic, deadline) : null;
+        try {
+            result = invoker.invoke(new Object[] { inputs });
+        } catch (Throwable e) {
+            metrics.invocation(System.nanoTime() - invoked, Outcome.FAILURE);
+            admitted.forEach(task -> fail(metrics, task, e));
+            return;
+        } finally {
+            if (watch != null) {
+                watch.close();
+            }
+        }
+        metrics.invocation(System.nanoTime() - invoked, Outcome.COMPLETED);
+        
+        if (result != null && !(result instanceof List<?> results && results.size() == admitted.size())) {
+            var mismatch = new IllegalStateException("Batch worker for topic '" + topic + "' must return one result per task, got " 
+                    + (result instanceof List<?> results ? results.size() : result.getClass().getSimpleName()) 
+                    + " for " + admitted.size() + " tasks");
+            admitted.forEach(task -> fail(metrics, task, mismatch));
+            return;
+        }
+        
+        var results = (List<?>) result;
+        for (int i = 0; i < admitted.size(); i++) {
+            var task = admitted.get(i);
+            Object taskResult = results != null ? results.get(i) : null;
+            if (taskResult instanceof Throwable error) {
+                fail(metrics, task, error);
+            } else {
+                report(metrics, task, taskResult);
+            }
+        }
+    }
+    
+    private void report(TopicMetrics metrics, PendingTask task, Object result) {
+        var outcome = Outcome.FAILURE;
+        try {
+            stopExtending(task);
+            outcome = reporter.reportBatchResult(task.task(), task.service(), result);
+        } catch (RuntimeException e) {
+            log.error("Could not report task {} of a batch for topic {}", task.task().getId(), topic, e);
+        } finally {
+            release(task);
+            metrics.taskFinished(outcome);
+        }
+    }
+    
+    private void fail(TopicMetrics metrics, PendingTask task, Throwable error) {
+        var outcome = Outcome.FAILURE;
+        try {
+            stopExtending(task);
+            outcome = reporter.reportBatchFailure(task.task(), task.service(), error);
+        } catch (RuntimeException e) {
+            log.error("Could not report failure of task {} of a batch for topic {}", task.task().getId(), topic, e);
+        } finally {
+            release(task);
+            metrics.taskFinished(outcome);
+        }
+    }
+    
+    /**
+     * A batch is due when the first of its locks expires.
+     */
+    private static TaskDeadline earliestDeadline(List<PendingTask> batch) {
+        TaskDeadline earliest = null;
+        for (var task : batch) {
+            var deadline = TaskDeadline.of(task.task());
+            if (earliest == null || deadline.remainingMillis() < earliest.remainingMillis()) {
+                earliest = deadline;
+            }
+        }
+        return earliest;
+    }
+    
+    /**
+     * Stops extending the lock before the task is reported; releasing waits for an extension in flight,
+     * so no extension races the engine call.
+     */
+    private static void stopExtending(PendingTask task) {
+        if (task.lease != null) {
+            task.lease.release();
+        }
+    }
+    
+    private void release(PendingTask task) {
+        releaseMemory(task.payload());
+        if (admission != null) {
+            admission.release();
+        }
+    }
+    
+    private void releaseMemory(long payload) {
+        if (memoryAdmission != null) {
+            memoryAdmission.release(payload);
+        }
+    }
+    
+    static final class PendingTask {
+        
+        private final ExternalTask task;
+        private final ExternalTaskService service;
+        private final long payload;
+        private LockHeartbeat.Lease lease;
+        
+        PendingTask(ExternalTask task, ExternalTaskService service, long payload) {
+            this.task = task;
+            this.service = service;
+            this.payload = payload;
+        }
+        
+        ExternalTask task() {
+            return task;
+        }
+        
+        ExternalTaskService service() {
+            return service;
+        }
+        
+        long payload() {
+            return payload;
+        }
+    }
+}
@@ -1,107 +1,595 @@
 package com.jeevision.bpm.worker.handler;
 
+import java.lang.reflect.InvocationTargetException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import org.cibseven.bpm.client.task.ExternalTask;
-import org.cibseven.bpm.client.task.ExternalTaskHandler;
 import org.cibseven.bpm.client.task.ExternalTaskService;
-import org.springframework.expression.spel.standard.SpelExpressionParser;
-import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
 import org.springframework.util.StringUtils;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jeevision.bpm.worker.annotation.BpmResult;
 import com.jeevision.bpm.worker.config.BpmWorkerProperties;
+import com.jeevision.bpm.worker.execution.AsyncTaskHandler;
+import com.jeevision.bpm.worker.execution.CompletionPipeline;
+import com.jeevision.bpm.worker.execution.PayloadEstimator;
+import com.jeevision.bpm.worker.lock.AdaptiveLockDuration;
+import com.jeevision.bpm.worker.lock.DeadlineWatchdog;
+import com.jeevision.bpm.worker.lock.LockHeartbeat;
+import com.jeevision.bpm.worker.metrics.TaskMetrics;
+import com.jeevision.bpm.worker.metrics.TopicMetrics;
+import com.jeevision.bpm.worker.metrics.TopicMetrics.EngineCall;
+import com.jeevision.bpm.worker.metrics.TopicMetrics.Outcome;
+import com.jeevision.bpm.worker.model.ArgumentResolver;
+import com.jeevision.bpm.worker.model.ResultFlattener;
+import com.jeevision.bpm.worker.model.TaskDeadline;
+import com.jeevision.bpm.worker.model.WorkerInvoker;
 import com.jeevision.bpm.worker.model.WorkerMethod;
+import com.jeevision.bpm.worker.outbox.CompletionOutbox;
+import com.jeevision.bpm.worker.outbox.OutboxEntry;
 
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Handles execution of BPM worker methods.
- * Supports both BPMN errors and technical failures/incidents.
+ * Supports both BPMN errors and technical failures/incidents. Worker methods returning a
+ * {@code CompletableFuture}, {@code CompletionStage} or {@code Mono} are reported when the result settles.
  *
  * @author Slava Yermakov
  * @email v.yermakov@gmail.com
  */
 @Slf4j
 @RequiredArgsConstructor
-public class BpmTaskHandler implements ExternalTaskHandler {
-
-    private static final Pattern SPEL_PATTERN = Pattern.compile("#\\{([^}]+)\\}");
-    private final SpelExpressionParser expressionParser = new SpelExpressionParser();
-
+public class BpmTaskHandler implements AsyncTaskHandler {
+    
     private final ObjectMapper objectMapper;
     private final BpmWorkerProperties properties;
     private WorkerMethod workerMethod;
+    private WorkerInvoker invoker;
+    private ArgumentResolver[] argumentResolvers;
+    private ResultFlattener resultFlattener;
+    private ExceptionClassifier exceptionClassifier;
+    private TopicMetrics metrics = TopicMetrics.NOOP;
+    private long lockDuration;
+    private ObservationRegistry observationRegistry = ObservationRegistry.NOOP;
+    /** Reports tasks whose worker method returned a future, unless the completion pipeline does */
+    private Executor asyncReporting = ForkJoinPool.commonPool();
+    private boolean jfrEvents;
+    private LockHeartbeat lockHeartbeat;
+    private AdaptiveLockDuration adaptiveLockDuration;
+    private DeadlineWatchdog deadlineWatchdog;
+    private int deadlineParameter = -1;
+    private CompletionPipeline completionPipeline;
+    private CompletionOutbox outbox;
+    private RedeliveryCache redeliveryCache;
+    private String idempotencyKey;
     
     public BpmTaskHandler withWorkerMethod(WorkerMethod workerMethod) {
         this.workerMethod = workerMethod;
+        this.invoker = workerMethod.getInvoker();
+        if (invoker == null && workerMethod.getMethod() != null) {
+            invoker = WorkerInvoker.of(workerMethod.getBean(), workerMethod.getMethod());
+        }
+        this.argumentResolvers = workerMethod.getArgumentResolvers();
+        if (argumentResolvers == null) {
+            argumentResolvers = ArgumentResolvers.compile(workerMethod.getParameters(), objectMapper);
+        }
+        this.resultFlattener = workerMethod.getResultFlattener();
+        var resultAnnotation = workerMethod.getResultAnnotation();
+        if (resultFlattener == null && resultAnnotation != null && resultAnnotation.flatten()) {
+            resultFlattener = ResultFlatteners.jackson(resultAnnotation, objectMapper);
+        }
+        var errors = properties.getErrors();
+        this.exceptionClassifier = new ExceptionClassifier(workerMethod.getThrowsExceptionMappings(),
+                ErrorExpressions.parser(errors != null ? errors.getSpelCompilerMode() : SpelCompilerMode.OFF));
+        var jfr = properties.getJfr();
+        this.jfrEvents = jfr != null && jfr.isEnabled();
+        var workerAnnotation = workerMethod.getWorkerAnnotation();
+        this.lockDuration = workerAnnotation != null ? workerAnnotation.lockDuration() : properties.getLockDuration();
+        this.deadlineParameter = indexOfDeadlineParameter(workerMethod.getParameters());
+        this.idempotencyKey = workerAnnotation != null && StringUtils.hasText(workerAnnotation.idempotencyKey()) 
+                ? workerAnnotation.idempotencyKey() 
+                : null;
+        return this;
+    }
+    
+    private static int indexOfDeadlineParameter(List<WorkerMethod.ParameterInfo> parameters) {
+        if (parameters != null) {
+            for (int i = 0; i < parameters.size(); i++) {
+                if (TaskDeadline.class.equals(parameters.get(i).getType())) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Records the task lifecycle into the topic's meters; call after {@link #withWorkerMethod(WorkerMethod)}.
+     */
+    public BpmTaskHandler withMetrics(TaskMetrics taskMetrics) {
+        this.metrics = taskMetrics != null ? taskMetrics.forTopic(workerMethod.getTopic()) : TopicMetrics.NOOP;
+        return this;
+    }
+    
+    /**
+     * Wraps each execution in an observation; call after {@link #withWorkerMethod(WorkerMethod)}.
+     */
+    public BpmTaskHandler withObservationRegistry(ObservationRegistry observationRegistry) {
+        this.observationRegistry = observationRegistry != null ? observationRegistry : ObservationRegistry.NOOP;
+        return this;
+    }
+    
+    /**
+     * Keeps the lock of each task alive while its worker method runs.
+     */
+    public BpmTaskHandler withLockHeartbeat(LockHeartbeat lockHeartbeat) {
+        this.lockHeartbeat = lockHeartbeat;
+        return this;
+    }
+    
+    /**
+     * Feeds execution times into the learned lock duration of the topic, which then also applies to lock extensions.
+     */
+    public BpmTaskHandler withAdaptiveLockDuration(AdaptiveLockDuration adaptiveLockDuration) {
+        this.adaptiveLockDuration = adaptiveLockDuration;
+        return this;
+    }
+    
+    /**
+     * Interrupts worker methods that overrun the lock of their task.
+     */
+    public BpmTaskHandler withDeadlineWatchdog(DeadlineWatchdog deadlineWatchdog) {
+        this.deadlineWatchdog = deadlineWatchdog;
+        return this;
+    }
+    
+    /**
+     * Reports the settled results of worker methods returning a future on the given executor,
+     * instead of the common pool; the caller owns and shuts down the executor.
+     */
+    public BpmTaskHandler withAsyncReporting(Executor asyncReporting) {
+        this.asyncReporting = asyncReporting != null ? asyncReporting : ForkJoinPool.commonPool();
+        return this;
+    }
+    
+    /**
+     * Reports tasks from the pipeline's threads, which repeat engine calls failing transiently.
+     */
+    public BpmTaskHandler withCompletionPipeline(CompletionPipeline completionPipeline) {
+        this.completionPipeline = completionPipeline;
         return this;
     }
     
+    /**
+     * Journals every report before it is sent, so a result survives the engine being unreachable.
+     */
+    public BpmTaskHandler withOutbox(CompletionOutbox outbox) {
+        this.outbox = outbox;
+        return this;
+    }
+    
+    /**
+     * Answers a task delivered again with the result it was already reported with, instead of running the method twice.
+     */
+    public BpmTaskHandler withRedeliveryCache(RedeliveryCache redeliveryCache) {
+        this.redeliveryCache = redeliveryCache;
+        return this;
+    }
+    
+    @Override
+    public CompletionStage<Outcome> executeAsync(ExternalTask externalTask, ExternalTaskService externalTaskService) {
+        return executeAsync(externalTask, externalTaskService, -1);
+    }
+    
     @Override
-    public void execute(ExternalTask externalTask, ExternalTaskService externalTaskService) {
+    public CompletionStage<Outcome> executeAsync(ExternalTask externalTask, ExternalTaskService externalTaskService, 
+            long payloadSize) {
+        if (observationRegistry.isNoop()) {
+            return executeTask(externalTask, externalTaskService, payloadSize, null);
+        }
+        
+        var observation = TaskObservations.task(externalTask, observationRegistry).start();
+        CompletionStage<Outcome> outcome;
+        try (var scope = observation.openScope()) {
+            outcome = executeTask(externalTask, externalTaskService, payloadSize, observation);
+        } catch (RuntimeException e) {
+            observation.error(e);
+            observation.stop();
+            throw e;
+        }
+        return outcome.whenComplete((settled, error) -> {
+            if (error != null) {
+                observation.error(AsyncResults.unwrap(error));
+            } else {
+                observation.lowCardinalityKeyValue("outcome", settled.tag());
+            }
+            observation.stop();
+        });
+    }
+    
+    /**
+     * @param observation observation of the task, reopened on the thread that reports a result settling later
+     */
+    private CompletionStage<Outcome> executeTask(ExternalTask externalTask, ExternalTaskService externalTaskService, 
+            long payloadSize, Observation observation) {
+        if (redeliveryCache != null) {
+            var key = redeliveryKey(externalTask);
+            var cached = redeliveryCache.get(key);
+            metrics.redelivery(cached != null);
+            if (cached != null) {
+                try {
+                    return CompletableFuture.completedFuture(resend(externalTask, externalTaskService, cached));
+                } catch (RuntimeException e) {
+                    redeliveryCache.invalidate(key);
+                    log.warn("Could not report the cached {} of task {} for topic {}, running the worker method: {}", 
+                            cached.kind(), externalTask.getId(), externalTask.getTopicName(), e.getMessage());
+                }
+            }
+        }
+        
+        var run = new TaskRun(externalTask, externalTaskService, payloadSize, observation);
+        Object result;
         try {
             log.debug("Executing task {} for topic {}", externalTask.getId(), externalTask.getTopicName());
             
-            var args = prepareMethodArguments(externalTask);
-            var result = workerMethod.getMethod().invoke(workerMethod.getBean(), args);
-            
-            var variables = processResult(result);
-            
-            externalTaskService.complete(externalTask, variables);
-            log.debug("Completed task {} for topic {}", externalTask.getId(), externalTask.getTopicName());
-            
-        } catch (Exception e) {
-            handleException(externalTask, externalTaskService, e);
+            var args = resolveArguments(externalTask);
+            if (run.deadline != null && deadlineParameter >= 0) {
+                // Share the deadline the heartbeat moves forward
+                args[deadlineParameter] = run.deadline;
+            }
+            run.invoked = System.nanoTime();
+            result = invoke(args, externalTask, run.deadline);
+        } catch (Throwable e) {
+            run.stampReturned();
+            return report(run, null, e);
         }
+        
+        var pending = AsyncResults.adapt(result);
+        if (pending == null) {
+            run.stampReturned();
+            return report(run, result, null);
+        }
+        // The lock heartbeat keeps running until the result settles, reporting happens off the completing thread
+        return pending.whenComplete((value, error) -> run.stampReturned())
+                .handleAsync(run::settleAsync, completionPipeline != null ? completionPipeline : asyncReporting);
     }
     
-    private Object[] prepareMethodArguments(ExternalTask externalTask) {
-        return workerMethod.getParameters().stream()
-                .map(paramInfo -> resolveParameterValue(externalTask, paramInfo))
-                .toArray();
+    private CompletionStage<Outcome> report(TaskRun run, Object result, Throwable error) {
+        if (completionPipeline == null) {
+            return CompletableFuture.completedFuture(run.settle(result, error));
+        }
+        return CompletableFuture.supplyAsync(() -> run.settleAsync(result, error), completionPipeline);
     }
     
-    private Object resolveParameterValue(ExternalTask externalTask, WorkerMethod.ParameterInfo paramInfo) {
-        var variableName = paramInfo.getVariableName();
+    /**
+     * State of one execution, from the fetch until the task is reported to the engine.
+     */
+    private final class TaskRun {
+        
+        private final ExternalTask externalTask;
+        private final ExternalTaskService externalTaskService;
+        private final long started = System.nanoTime();
+        /** Epoch millis the lock was taken at, {@code 0} if unknown */
+        private final long lockTaken;
+        private final TaskEvents.Execution executionEvent;
+        private final Observation observation;
+        private final TaskDeadline deadline;
+        private final LockHeartbeat.Lease lease;
+        private long invoked;
+        private long returned;
         
-        if (paramInfo.getType().equals(ExternalTask.class)) {
-            return externalTask;
+        TaskRun(ExternalTask externalTask, ExternalTaskService externalTaskService, long payloadSize, 
+                Observation observation) {
+            this.externalTask = externalTask;
+            this.externalTaskService = externalTaskService;
+            this.observation = observation;
+            this.executionEvent = jfrEvents ? TaskEvents.Execution.start() : null;
+            this.lockTaken = lockTaken(externalTask);
+            metrics.taskStarted();
+            if (metrics.isEnabled()) {
+                recordQueueDelay();
+                metrics.payloadSize(payloadSize >= 0 ? payloadSize : PayloadEstimator.estimate(externalTask));
+            }
+            this.deadline = lockHeartbeat != null || deadlineWatchdog != null ? TaskDeadline.of(externalTask) : null;
+            this.lease = lockHeartbeat != null 
+                    ? lockHeartbeat.track(externalTask, externalTaskService, lockDuration(), deadline) 
+                    : null;
         }
         
-        var value = externalTask.getVariable(variableName);
+        void stampReturned() {
+            if (invoked != 0 && returned == 0) {
+                returned = System.nanoTime();
+            }
+        }
+        
+        /**
+         * Reports off the executing thread, with the engine requests observed as children of the task.
+         */
+        Outcome settleAsync(Object result, Throwable error) {
+            try (var scope = observation != null ? observation.openScope() : null) {
+                return settle(result, error != null ? AsyncResults.unwrap(error) : null);
+            } catch (RuntimeException e) {
+                log.error("Could not report task {} for topic {}", externalTask.getId(), externalTask.getTopicName(), e);
+                throw e;
+            }
+        }
         
-        if (value == null) {
-            if (paramInfo.isRequired()) {
-                throw new IllegalArgumentException("Required variable '" + variableName + "' not found");
+        /**
+         * Reports the result or the exception of the worker method and records the execution.
+         */
+        Outcome settle(Object result, Throwable error) {
+            stampReturned();
+            if (completionPipeline != null && returned != 0) {
+                metrics.reportDelay(System.nanoTime() - returned);
             }
+            release(lease);
             
-            if (StringUtils.hasText(paramInfo.getDefaultValue())) {
-                value = paramInfo.getDefaultValue();
+            var outcome = Outcome.FAILURE;
+            try {
+                if (error == null) {
+                    try {
+                        var variables = processResult(externalTask, result);
+                        complete(externalTask, externalTaskService, variables);
+                        outcome = Outcome.COMPLETED;
+                        log.debug("Completed task {} for topic {}", externalTask.getId(), externalTask.getTopicName());
+                        return outcome;
+                    } catch (Throwable e) {
+                        error = e;
+                    }
+                }
+                outcome = handleException(externalTask, externalTaskService, error);
+                return outcome;
+            } finally {
+                record(outcome);
+            }
+        }
+        
+        private void record(Outcome outcome) {
+            if (invoked != 0) {
+                metrics.conversion(invoked - started);
+                metrics.invocation(returned - invoked, outcome);
+                if (adaptiveLockDuration != null) {
+                    adaptiveLockDuration.record(lockHeld());
+                }
+            }
+            metrics.taskFinished(outcome);
+            if (executionEvent != null) {
+                executionEvent.finish(externalTask, outcome.tag());
             }
         }
         
-        return convertValue(value, paramInfo.getType());
+        /**
+         * The lock has to last from the fetch until the report, including the time the task waited to start.
+         */
+        private long lockHeld() {
+            if (lockTaken > 0) {
+                return Math.max(0, System.currentTimeMillis() - lockTaken);
+            }
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        }
+        
+        private void recordQueueDelay() {
+            if (lockTaken > 0) {
+                metrics.queueDelay(Math.max(0, System.currentTimeMillis() - lockTaken));
+            }
+        }
+    }
+    
+    /**
+     * Reports the cached result of a task delivered again, e.g. after its lock expired just as the method finished.
+     */
+    private Outcome resend(ExternalTask externalTask, ExternalTaskService externalTaskService, OutboxEntry cached) {
+        log.info("Task {} for topic {} was delivered again, reporting its cached {} instead of running the worker method", 
+                externalTask.getId(), externalTask.getTopicName(), cached.kind());
+        return switch (cached.kind()) {
+            case COMPLETE -> {
+                complete(externalTask, externalTaskService, cached.variables() != null ? cached.variables() : Map.of());
+                yield Outcome.COMPLETED;
+            }
+            case BPMN_ERROR -> {
+                reportBpmnError(externalTask, externalTaskService, cached.errorCode(), cached.errorMessage());
+                yield Outcome.BPMN_ERROR;
+            }
+            case FAILURE -> throw new IllegalStateException("Failures are retried, not cached");
+        };
     }
     
-    private Object convertValue(Object value, Class<?> targetType) {
-        if (value == null) {
-            return null;
+    /**
+     * Tasks are recognized by their id or, with an idempotency key, by the key's value within the topic.
+     */
+    private String redeliveryKey(ExternalTask externalTask) {
+        if (idempotencyKey != null) {
+            var value = externalTask.getVariable(idempotencyKey);
+            if (value != null) {
+                return workerMethod.getTopic() + "#" + value;
+            }
         }
-        
-        if (targetType.isAssignableFrom(value.getClass())) {
-            return value;
+        return externalTask.getId();
+    }
+    
+    /**
+     * Completes one task of a batch with the result the worker method returned for it.
+     */
+    Outcome reportBatchResult(ExternalTask externalTask, ExternalTaskService externalTaskService, Object result) {
+        try {
+            var variables = processResult(externalTask, result);
+            complete(externalTask, externalTaskService, variables);
+            return Outcome.COMPLETED;
+        } catch (Throwable e) {
+            return handleException(externalTask, externalTaskService, e);
+        }
+    }
+    
+    /**
+     * Reports one task of a batch as BPMN error or failure, as if its worker method had thrown the exception.
+     */
+    Outcome reportBatchFailure(ExternalTask externalTask, ExternalTaskService externalTaskService, Throwable exception) {
+        return handleException(externalTask, externalTaskService, exception);
+    }
+    
+    TopicMetrics metrics() {
+        return metrics;
+    }
+    
+    /**
+     * Keeps the lock of one task of a batch alive, moving the batch's deadline with it.
+     *
+     * @return lease to release before the task is reported, {@code null} without a lock heartbeat
+     */
+    LockHeartbeat.Lease trackLock(ExternalTask externalTask, ExternalTaskService externalTaskService, TaskDeadline deadline) {
+        return lockHeartbeat != null ? lockHeartbeat.track(externalTask, externalTaskService, lockDuration(), deadline) : null;
+    }
+    
+    /**
+     * Watches the calling thread while it runs a batch.
+     *
+     * @return watch to close once the worker method returned, {@code null} without a deadline watchdog
+     */
+    DeadlineWatchdog.Watch watchDeadline(String name, TaskDeadline deadline) {
+        return deadlineWatchdog != null ? deadlineWatchdog.watch(name, deadline) : null;
+    }
+    
+    boolean tracksDeadlines() {
+        return lockHeartbeat != null || deadlineWatchdog != null;
+    }
+    
+    private long lockDuration() {
+        return adaptiveLockDuration != null ? adaptiveLockDuration.getCurrent() : lockDuration;
+    }
+    
+    /**
+     * Stops extending the lock before the task is reported; releasing waits for an extension in flight,
+     * so no extension races the engine call.
+     */
+    private static void release(LockHeartbeat.Lease lease) {
+        if (lease != null) {
+            lease.release();
+        }
+    }
+    
+    /**
+     * The engine does not report when a task was fetched, so it is derived from the lock expiration.
+     */
+    private long lockTaken(ExternalTask externalTask) {
+        var lockExpirationTime = externalTask.getLockExpirationTime();
+        return lockExpirationTime != null ? lockExpirationTime.getTime() - lockDuration() : 0;
+    }
+    
+    private Object[] resolveArguments(ExternalTask externalTask) {
+        var observation = TaskObservations.arguments(observationRegistry).start();
+        var event = jfrEvents ? TaskEvents.Conversion.start() : null;
+        try {
+            return prepareMethodArguments(externalTask);
+        } catch (RuntimeException e) {
+            observation.error(e);
+            throw e;
+        } finally {
+            observation.stop();
+            if (event != null) {
+                event.finish(externalTask, argumentResolvers.length);
+            }
+        }
+    }
+    
+    private Object invoke(Object[] args, ExternalTask externalTask, TaskDeadline deadline) throws Throwable {
+        var observation = TaskObservations.method(observationRegistry).start();
+        var watch = deadlineWatchdog != null ? deadlineWatchdog.watch(externalTask.getId(), deadline) : null;
+        try {
+            return invoker.invoke(args);
+        } catch (Throwable e) {
+            observation.error(e);
+            throw e;
+        } finally {
+            if (watch != null) {
+                watch.close();
+            }
+            observation.stop();
+        }
+    }
+    
+    private void complete(ExternalTask externalTask, ExternalTaskService externalTaskService, Map<String, Object> variables) {
+        long start = System.nanoTime();
+        var observation = TaskObservations.engineRequest(EngineCall.COMPLETE.tag(), observationRegistry).start();
+        var event = jfrEvents ? TaskEvents.EngineRequest.start() : null;
+        try {
+            engineCall(EngineCall.COMPLETE, externalTask, externalTaskService, 
+                    () -> OutboxEntry.complete(externalTask, variables), 
+                    () -> externalTaskService.complete(externalTask, variables));
+        } catch (RuntimeException e) {
+            observation.error(e);
+            throw e;
+        } finally {
+            endEngineRequest(externalTask, EngineCall.COMPLETE, start, observation, event);
         }
+    }
+    
+    /**
+     * Performs a call reporting the task; with a completion pipeline, transient errors are retried,
+     * with an outbox the report is journaled first and kept if the engine stays unreachable.
+     * Completions and BPMN errors are remembered for redeliveries once the engine accepted them or
+     * the outbox kept them; a failure is left to be retried.
+     */
+    private void engineCall(EngineCall call, ExternalTask externalTask, ExternalTaskService externalTaskService, 
+            Supplier<OutboxEntry> entry, Runnable request) {
+        boolean cached = redeliveryCache != null && call != EngineCall.HANDLE_FAILURE;
+        var report = outbox != null || cached ? entry.get() : null;
         
+        Runnable attempt = completionPipeline == null 
+                ? request 
+                : () -> completionPipeline.call(request, () -> metrics.engineCallRetried(call));
+        if (outbox == null) {
+            attempt.run();
+        } else {
+            outbox.deliver(report, externalTaskService, attempt);
+        }
+        if (cached) {
+            redeliveryCache.put(redeliveryKey(externalTask), report);
+        }
+    }
+    
+    private void endEngineRequest(ExternalTask externalTask, EngineCall call, long start, 
+            Observation observation, TaskEvents.EngineRequest event) {
+        observation.stop();
+        metrics.engineCall(call, System.nanoTime() - start);
+        if (event != null) {
+            event.finish(externalTask, call.tag());
+        }
+    }
+    
+    private Object[] prepareMethodArguments(ExternalTask externalTask) {
+        var resolvers = argumentResolvers;
+        var args = new Object[resolvers.length];
+        for (int i = 0; i < resolvers.length; i++) {
+            args[i] = resolvers[i].resolve(externalTask);
+        }
+        return args;
+    }
+    
+    private Map<String, Object> processResult(ExternalTask externalTask, Object result) {
+        if (!jfrEvents) {
+            return processResult(result);
+        }
+        var event = TaskEvents.ResultProcessing.start();
+        Map<String, Object> variables = null;
         try {
-            return objectMapper.convertValue(value, targetType);
-        } catch (Exception e) {
-            log.warn("Could not convert value {} to type {}: {}", value, targetType, e.getMessage());
-            return value;
+            variables = processResult(result);
+            return variables;
+        } finally {
+            event.finish(externalTask, variables != null ? variables.size() : 0);
         }
     }
     
@@ -137,45 +625,35 @@ public class BpmTaskHandler implements ExternalTaskHandler {
     
     private Map<String, Object> flattenResult(Object result, BpmResult resultAnnotation) {
         try {
-            @SuppressWarnings("unchecked")
-            var resultMap = (Map<String, Object>) objectMapper.convertValue(result, Map.class);
-            
-            return resultMap.entrySet().stream()
-                    .filter(entry -> resultAnnotation.includeNullProperties() || entry.getValue() != null)
-                    .collect(
-                            HashMap::new,
-                            (map, entry) -> {
-                                var key = StringUtils.hasText(resultAnnotation.flattenPrefix()) 
-                                        ? resultAnnotation.flattenPrefix() + entry.getKey()
-                                        : entry.getKey();
-                                map.put(key, entry.getValue());
-                            },
-                            HashMap::putAll
-                    );
-            
+            return resultFlattener.flatten(result);
         } catch (Exception e) {
             log.warn("Could not flatten result object: {}", e.getMessage());
             return Map.of(resultAnnotation.value(), result);
         }
     }
     
-    private void handleException(ExternalTask externalTask, ExternalTaskService externalTaskService, Exception exception) {
-        Throwable cause = exception.getCause() != null ? exception.getCause() : exception;
+    private Outcome handleException(ExternalTask externalTask, ExternalTaskService externalTaskService, Throwable exception) {
+        Throwable cause = exception instanceof InvocationTargetException && exception.getCause() != null 
+                ? exception.getCause() 
+                : exception;
         
-        // Check if this exception type is mapped to a BpmError
-        var exceptionMapping = workerMethod.getThrowsExceptionMappings().get(cause.getClass());
+        // Check if this exception, a superclass or a cause is mapped to a BpmError
+        var match = exceptionClassifier.classify(cause);
         
-        if (exceptionMapping != null) {
+        if (match != null) {
             // Report as BPMN error
-            String errorCode = resolveExpression(exceptionMapping.getErrorCode(), cause);
-            String errorMessage = StringUtils.hasText(exceptionMapping.getErrorMessage()) 
-                    ? resolveExpression(exceptionMapping.getErrorMessage(), cause)
-                    : cause.getMessage();
+            var exceptionMapping = match.mapping();
+            var error = match.exception();
+            String errorCode = resolveExpression(exceptionMapping.getErrorCodeExpression(), exceptionMapping.getErrorCode(), error);
+            String errorMessage = exceptionMapping.getErrorMessageExpression() != null 
+                    ? ErrorExpressions.evaluate(exceptionMapping.getErrorMessageExpression(), error)
+                    : error.getMessage();
             
             log.info("Handling BPMN error for task {} with code '{}': {}", 
                     externalTask.getId(), errorCode, errorMessage);
             
-            externalTaskService.handleBpmnError(externalTask, errorCode, errorMessage);
+            reportBpmnError(externalTask, externalTaskService, errorCode, errorMessage);
+            return Outcome.BPMN_ERROR;
         } else {
             // Report as technical failure/incident with retry configuration
             String errorMessage = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
@@ -187,18 +665,44 @@ public class BpmTaskHandler implements ExternalTaskHandler {
             log.error("Handling technical failure for task {} (retry {}/{}, backoff {}ms): {}", 
                     externalTask.getId(), maxRetries - currentRetries + 1, maxRetries, retryTimeout, errorMessage, cause);
             
-            externalTaskService.handleFailure(externalTask, errorMessage, 
-                    cause.toString(), --currentRetries, retryTimeout);
+            long start = System.nanoTime();
+            var observation = TaskObservations.engineRequest(EngineCall.HANDLE_FAILURE.tag(), observationRegistry).start();
+            var event = jfrEvents ? TaskEvents.EngineRequest.start() : null;
+            try {
+                int remainingRetries = currentRetries - 1;
+                engineCall(EngineCall.HANDLE_FAILURE, externalTask, externalTaskService, 
+                        () -> OutboxEntry.failure(externalTask, errorMessage, cause.toString(), remainingRetries, retryTimeout), 
+                        () -> externalTaskService.handleFailure(externalTask, errorMessage, 
+                                cause.toString(), remainingRetries, retryTimeout));
+            } catch (RuntimeException e) {
+                observation.error(e);
+                throw e;
+            } finally {
+                endEngineRequest(externalTask, EngineCall.HANDLE_FAILURE, start, observation, event);
+            }
+            return Outcome.FAILURE;
         }
     }
     
-    private String resolveExpression(String expression, Throwable exception) {
-        if (!StringUtils.hasText(expression)) return expression;
-        return SPEL_PATTERN.matcher(expression).replaceAll(m -> {
-            var ctx = new StandardEvaluationContext(exception);
-            Object result = expressionParser.parseExpression(m.group(1)).getValue(ctx);
-            return result != null ? result.toString() : "";
-        });
+    private void reportBpmnError(ExternalTask externalTask, ExternalTaskService externalTaskService, 
+            String errorCode, String errorMessage) {
+        long start = System.nanoTime();
+        var observation = TaskObservations.engineRequest(EngineCall.HANDLE_BPMN_ERROR.tag(), observationRegistry).start();
+        var event = jfrEvents ? TaskEvents.EngineRequest.start() : null;
+        try {
+            engineCall(EngineCall.HANDLE_BPMN_ERROR, externalTask, externalTaskService, 
+                    () -> OutboxEntry.bpmnError(externalTask, errorCode, errorMessage), 
+                    () -> externalTaskService.handleBpmnError(externalTask, errorCode, errorMessage));
+        } catch (RuntimeException e) {
+            observation.error(e);
+            throw e;
+        } finally {
+            endEngineRequest(externalTask, EngineCall.HANDLE_BPMN_ERROR, start, observation, event);
+        }
+    }
+    
+    private String resolveExpression(Expression expression, String template, Throwable exception) {
+        return expression != null ? ErrorExpressions.evaluate(expression, exception) : template;
     }
 
     private long calculateRetryTimeout(int currentRetries) {
@@ -0,0 +1,61 @@
+package com.jeevision.bpm.worker.handler;
+
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.common.LiteralExpression;
+import org.springframework.expression.common.TemplateParserContext;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.SimpleEvaluationContext;
+import org.springframework.util.StringUtils;
+
+/**
+ * Parses the {@code #{...}} templates of {@code @BpmError} code and message once and
+ * evaluates them against the thrown exception.
+ *
+ * @author Slava Yermakov
+ * @email v.yermakov@gmail.com
+ */
+public final class ErrorExpressions {
+
+    private static final TemplateParserContext TEMPLATE_CONTEXT = new TemplateParserContext();
+
+    /** Stateless, so one context is shared by every evaluation; the exception is passed as root object */
+    private static final EvaluationContext EVALUATION_CONTEXT = SimpleEvaluationContext
+            .forReadOnlyDataBinding()
+            .withInstanceMethods()
+            .build();
+
+    private ErrorExpressions() {
+    }
+
+    public static ExpressionParser parser(SpelCompilerMode compilerMode) {
+        return new SpelExpressionParser(new SpelParserConfiguration(compilerMode, ErrorExpressions.class.getClassLoader()));
+    }
+
+    /**
+     * Parses a code or message template; text without {@code #{...}} becomes a literal expression.
+     *
+     * @return the parsed template, or {@code null} when the template is blank
+     */
+    public static Expression parse(String template, ExpressionParser parser) {
+        if (!StringUtils.hasText(template)) {
+            return null;
+        }
+        if (!template.contains(TEMPLATE_CONTEXT.getExpressionPrefix())) {
+            return new LiteralExpression(template);
+        }
+        try {
+            return parser.parseExpression(template, TEMPLATE_CONTEXT);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid SpEL expression: " + template, e);
+        }
+    }
+
+    public static String evaluate(Expression expression, Throwable exception) {
+        String value = expression.getValue(EVALUATION_CONTEXT, exception, String.class);
+        return value != null ? value : "";
+    }
+}
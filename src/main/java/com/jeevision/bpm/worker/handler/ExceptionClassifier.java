@@ -0,0 +1,101 @@
+package com.jeevision.bpm.worker.handler;
+
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.util.StringUtils;
+
+import com.jeevision.bpm.worker.annotation.BpmError;
+import com.jeevision.bpm.worker.model.WorkerMethod.ThrowsExceptionInfo;
+
+/**
+ * Decides whether an exception thrown by a worker method is reported as a BPMN error or as a technical failure.
+ * <p>
+ * A thrown exception, or any exception in its cause chain, is a BPMN error when its class or one of its
+ * superclasses is declared with {@code throws @BpmError(...)} on the worker method, or when the exception
+ * type itself is annotated with {@link BpmError}. Mappings on the method take precedence over type annotations.
+ * The resolution is memoized per concrete exception class.
+ *
+ * @author Slava Yermakov
+ * @email v.yermakov@gmail.com
+ */
+public final class ExceptionClassifier {
+
+    private static final int MAX_CAUSE_DEPTH = 16;
+
+    private final Map<Class<? extends Throwable>, ThrowsExceptionInfo> mappings;
+    private final ExpressionParser parser;
+    private final ClassValue<Optional<ThrowsExceptionInfo>> resolved = new ClassValue<>() {
+        @Override
+        protected Optional<ThrowsExceptionInfo> computeValue(Class<?> type) {
+            return Optional.ofNullable(resolve(type));
+        }
+    };
+
+    /**
+     * @param mappings the {@code throws} mappings of the worker method; expressions not parsed yet are parsed here
+     * @param parser parser for code and message templates
+     */
+    public ExceptionClassifier(Map<Class<? extends Throwable>, ThrowsExceptionInfo> mappings, ExpressionParser parser) {
+        this.mappings = mappings != null ? Map.copyOf(mappings) : Map.of();
+        this.parser = parser;
+        this.mappings.values().forEach(this::parseExpressions);
+    }
+
+    /**
+     * @return the BPMN error matched by the exception or its causes, or {@code null} for a technical failure
+     */
+    public Match classify(Throwable exception) {
+        Throwable current = exception;
+        for (int depth = 0; current != null && depth < MAX_CAUSE_DEPTH; depth++) {
+            var mapping = resolved.get(current.getClass());
+            if (mapping.isPresent()) {
+                return new Match(mapping.get(), current);
+            }
+            if (current.getCause() == current) {
+                break;
+            }
+            current = current.getCause();
+        }
+        return null;
+    }
+
+    private ThrowsExceptionInfo resolve(Class<?> type) {
+        for (Class<?> candidate = type; candidate != null && candidate != Object.class; candidate = candidate.getSuperclass()) {
+            var mapping = mappings.get(candidate);
+            if (mapping != null) {
+                return mapping;
+            }
+        }
+        var bpmError = AnnotatedElementUtils.findMergedAnnotation(type, BpmError.class);
+        if (bpmError == null) {
+            return null;
+        }
+        @SuppressWarnings("unchecked")
+        var throwableType = (Class<? extends Throwable>) type;
+        var mapping = ThrowsExceptionInfo.builder()
+                .exceptionType(throwableType)
+                .bpmErrorAnnotation(bpmError)
+                .errorCode(bpmError.code())
+                .errorMessage(StringUtils.hasText(bpmError.message()) ? bpmError.message() : "")
+                .build();
+        parseExpressions(mapping);
+        return mapping;
+    }
+
+    private void parseExpressions(ThrowsExceptionInfo mapping) {
+        if (mapping.getErrorCodeExpression() == null) {
+            mapping.setErrorCodeExpression(ErrorExpressions.parse(mapping.getErrorCode(), parser));
+        }
+        if (mapping.getErrorMessageExpression() == null) {
+            mapping.setErrorMessageExpression(ErrorExpressions.parse(mapping.getErrorMessage(), parser));
+        }
+    }
+
+    /**
+     * A BPMN error mapping together with the exception of the cause chain that matched it.
+     */
+    public record Match(ThrowsExceptionInfo mapping, Throwable exception) {}
+}
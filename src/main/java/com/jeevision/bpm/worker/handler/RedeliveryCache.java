@@ -0,0 +1,70 @@
+package com.jeevision.bpm.worker.handler;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import com.jeevision.bpm.worker.outbox.OutboxEntry;
+
+/**
+ * Recently finished task results, so a task the engine hands out again - typically because
+ * its lock expired just as the worker finished - is answered without running the worker
+ * method twice. Holds at most {@code maxEntries} results, evicting the least recently used,
+ * and forgets each result {@code ttl} ms after it was stored.
+ *
+ * @author Slava Yermakov
+ * @email v.yermakov@gmail.com
+ */
+public class RedeliveryCache {
+    
+    private final int maxEntries;
+    private final long ttl;
+    private final LongSupplier clock;
+    private final LinkedHashMap<String, Cached> entries;
+    
+    public RedeliveryCache(int maxEntries, long ttl) {
+        this(maxEntries, ttl, System::currentTimeMillis);
+    }
+    
+    RedeliveryCache(int maxEntries, long ttl, LongSupplier clock) {
+        this.maxEntries = maxEntries;
+        this.ttl = ttl;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+                return size() > RedeliveryCache.this.maxEntries;
+            }
+        };
+    }
+    
+    public synchronized void put(String key, OutboxEntry result) {
+        entries.put(key, new Cached(result, clock.getAsLong() + ttl));
+    }
+    
+    /**
+     * @return the result stored under the key, {@code null} if there is none or it expired
+     */
+    public synchronized OutboxEntry get(String key) {
+        var cached = entries.get(key);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.expiresAt() <= clock.getAsLong()) {
+            entries.remove(key);
+            return null;
+        }
+        return cached.result();
+    }
+    
+    public synchronized void invalidate(String key) {
+        entries.remove(key);
+    }
+    
+    public synchronized int size() {
+        return entries.size();
+    }
+    
+    private record Cached(OutboxEntry result, long expiresAt) {
+    }
+}
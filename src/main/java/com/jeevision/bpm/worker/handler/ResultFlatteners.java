@@ -0,0 +1,273 @@
+package com.jeevision.bpm.worker.handler;
+
+import java.beans.PropertyDescriptor;
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jeevision.bpm.worker.annotation.BpmResult;
+import com.jeevision.bpm.worker.model.ResultFlattener;
+
+/**
+ * Builds {@link ResultFlattener}s for {@code @BpmResult(flatten = true)}.
+ * <p>
+ * For records and plain beans the flattener reads record components or getters through
+ * pre-bound method handles and writes them under precomputed, prefixed keys into a presized
+ * map. Types whose JSON shape Jackson may customize (Jackson annotations, naming strategies,
+ * mix-ins, public fields) as well as maps and interfaces are flattened through Jackson.
+ * Nested records and beans are flattened into {@code parent_child} keys up to
+ * {@link BpmResult#flattenDepth()} levels; nested values that Jackson converts into a map,
+ * such as maps or Jackson-annotated types, are expanded the same way, so both flatteners
+ * write the same variables.
+ *
+ * @author Slava Yermakov
+ * @email v.yermakov@gmail.com
+ */
+public final class ResultFlatteners {
+    
+    private static final String NESTED_SEPARATOR = "_";
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    
+    private ResultFlatteners() {
+    }
+    
+    public static ResultFlattener compile(Class<?> returnType, BpmResult resultAnnotation, ObjectMapper objectMapper) {
+        var jackson = jackson(resultAnnotation, objectMapper);
+        if (objectMapper.getPropertyNamingStrategy() != null || objectMapper.mixInCount() > 0) {
+            return jackson;
+        }
+        
+        var properties = introspect(returnType, prefixOf(resultAnnotation), depthOf(resultAnnotation));
+        if (properties == null) {
+            return jackson;
+        }
+        
+        return new CompiledFlattener(returnType, properties, countLeaves(properties), 
+                resultAnnotation.includeNullProperties(), objectMapper, jackson);
+    }
+    
+    /**
+     * Flattener equivalent to converting the result into a {@code Map} with Jackson.
+     */
+    public static ResultFlattener jackson(BpmResult resultAnnotation, ObjectMapper objectMapper) {
+        return new JacksonFlattener(prefixOf(resultAnnotation), depthOf(resultAnnotation), 
+                resultAnnotation.includeNullProperties(), objectMapper);
+    }
+    
+    private static String prefixOf(BpmResult resultAnnotation) {
+        return resultAnnotation.flattenPrefix() != null ? resultAnnotation.flattenPrefix() : "";
+    }
+    
+    private static int depthOf(BpmResult resultAnnotation) {
+        return Math.max(1, resultAnnotation.flattenDepth());
+    }
+    
+    private static Property[] introspect(Class<?> type, String prefix, int depth) {
+        if (!isFlattenable(type)) {
+            return null;
+        }
+        
+        List<Property> properties = new ArrayList<>();
+        if (type.isRecord()) {
+            for (RecordComponent component : type.getRecordComponents()) {
+                var property = createProperty(component.getAccessor(), component.getName(), component.getType(), prefix, depth);
+                if (property == null) {
+                    return null;
+                }
+                properties.add(property);
+            }
+        } else {
+            for (PropertyDescriptor descriptor : BeanUtils.getPropertyDescriptors(type)) {
+                if (descriptor.getReadMethod() == null || "class".equals(descriptor.getName())) {
+                    continue;
+                }
+                var property = createProperty(descriptor.getReadMethod(), descriptor.getName(), 
+                        descriptor.getPropertyType(), prefix, depth);
+                if (property == null) {
+                    return null;
+                }
+                properties.add(property);
+            }
+        }
+        
+        return properties.isEmpty() ? null : properties.toArray(Property[]::new);
+    }
+    
+    private static boolean isFlattenable(Class<?> type) {
+        if (type == null || type.isInterface() || type.isArray() || type.isEnum() 
+                || Object.class.equals(type) || BeanUtils.isSimpleValueType(type)
+                || Map.class.isAssignableFrom(type) || Collection.class.isAssignableFrom(type)) {
+            return false;
+        }
+        boolean hasPublicFields = Stream.of(type.getFields())
+                .anyMatch(field -> !Modifier.isStatic(field.getModifiers()));
+        return !hasPublicFields && !hasJacksonAnnotations(type);
+    }
+    
+    private static boolean hasJacksonAnnotations(Class<?> type) {
+        return isJacksonAnnotated(type)
+                || Stream.of(type.getDeclaredFields()).anyMatch(ResultFlatteners::isJacksonAnnotated)
+                || Stream.of(type.getMethods()).anyMatch(ResultFlatteners::isJacksonAnnotated);
+    }
+    
+    private static boolean isJacksonAnnotated(AnnotatedElement element) {
+        for (Annotation annotation : element.getAnnotations()) {
+            if (annotation.annotationType().getPackageName().startsWith("com.fasterxml.jackson")) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static Property createProperty(Method accessor, String name, Class<?> propertyType, String prefix, int depth) {
+        MethodHandle getter;
+        try {
+            ReflectionUtils.makeAccessible(accessor);
+            getter = MethodHandles.lookup().unreflect(accessor).asType(GETTER_TYPE);
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+        
+        var key = prefix + name;
+        var nested = depth > 1 ? introspect(propertyType, key + NESTED_SEPARATOR, depth - 1) : null;
+        boolean direct = ClassUtils.isPrimitiveOrWrapper(propertyType) || String.class.equals(propertyType);
+        return new Property(key, getter, direct, nested, depth);
+    }
+    
+    private static int countLeaves(Property[] properties) {
+        int count = 0;
+        for (var property : properties) {
+            count += property.nested() != null ? countLeaves(property.nested()) : 1;
+        }
+        return count;
+    }
+    
+    /**
+     * A single readable property. {@code direct} values are stored as they are; other values are
+     * converted with Jackson so nested objects keep the shape they had before flattening, and
+     * expanded while {@code depth} leaves levels to flatten.
+     */
+    private record Property(String key, MethodHandle getter, boolean direct, Property[] nested, int depth) {
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static void expand(Map<String, Object> variables, Map<String, Object> values, String keyPrefix, 
+            int remainingDepth, boolean includeNullProperties) {
+        for (var entry : values.entrySet()) {
+            var key = keyPrefix + entry.getKey();
+            var value = entry.getValue();
+            if (value == null && !includeNullProperties) {
+                continue;
+            }
+            if (remainingDepth > 1 && value instanceof Map<?, ?> nested) {
+                expand(variables, (Map<String, Object>) nested, key + NESTED_SEPARATOR, remainingDepth - 1, 
+                        includeNullProperties);
+            } else {
+                variables.put(key, value);
+            }
+        }
+    }
+    
+    private static final class CompiledFlattener implements ResultFlattener {
+        
+        private final Class<?> type;
+        private final Property[] properties;
+        private final int expectedSize;
+        private final boolean includeNullProperties;
+        private final ObjectMapper objectMapper;
+        private final ResultFlattener fallback;
+        
+        CompiledFlattener(Class<?> type, Property[] properties, int expectedSize, boolean includeNullProperties,
+                ObjectMapper objectMapper, ResultFlattener fallback) {
+            this.type = type;
+            this.properties = properties;
+            this.expectedSize = expectedSize;
+            this.includeNullProperties = includeNullProperties;
+            this.objectMapper = objectMapper;
+            this.fallback = fallback;
+        }
+        
+        @Override
+        public Map<String, Object> flatten(Object result) {
+            if (result.getClass() != type) {
+                // Subclasses may expose further properties
+                return fallback.flatten(result);
+            }
+            
+            Map<String, Object> variables = HashMap.newHashMap(expectedSize);
+            write(variables, properties, result);
+            return variables;
+        }
+        
+        @SuppressWarnings("unchecked")
+        private void write(Map<String, Object> variables, Property[] properties, Object target) {
+            for (var property : properties) {
+                Object value;
+                try {
+                    value = property.getter().invokeExact(target);
+                } catch (Throwable e) {
+                    throw new IllegalStateException("Could not read property '" + property.key() + "'", e);
+                }
+                
+                if (value == null) {
+                    if (includeNullProperties) {
+                        variables.put(property.key(), null);
+                    }
+                } else if (property.nested() != null) {
+                    write(variables, property.nested(), value);
+                } else if (property.direct()) {
+                    variables.put(property.key(), value);
+                } else {
+                    var converted = objectMapper.convertValue(value, Object.class);
+                    if (property.depth() > 1 && converted instanceof Map<?, ?> map) {
+                        // Flattened like the Jackson path, which sees this value as a map as well
+                        expand(variables, (Map<String, Object>) map, property.key() + NESTED_SEPARATOR, 
+                                property.depth() - 1, includeNullProperties);
+                    } else {
+                        variables.put(property.key(), converted);
+                    }
+                }
+            }
+        }
+    }
+    
+    private static final class JacksonFlattener implements ResultFlattener {
+        
+        private final String prefix;
+        private final int depth;
+        private final boolean includeNullProperties;
+        private final ObjectMapper objectMapper;
+        
+        JacksonFlattener(String prefix, int depth, boolean includeNullProperties, ObjectMapper objectMapper) {
+            this.prefix = prefix;
+            this.depth = depth;
+            this.includeNullProperties = includeNullProperties;
+            this.objectMapper = objectMapper;
+        }
+        
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map<String, Object> flatten(Object result) {
+            var resultMap = (Map<String, Object>) objectMapper.convertValue(result, Map.class);
+            Map<String, Object> variables = HashMap.newHashMap(resultMap.size());
+            expand(variables, resultMap, prefix, depth, includeNullProperties);
+            return variables;
+        }
+    }
+}
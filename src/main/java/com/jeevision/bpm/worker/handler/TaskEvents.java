@@ -0,0 +1,148 @@
+package com.jeevision.bpm.worker.handler;
+
+import org.cibseven.bpm.client.task.ExternalTask;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder events emitted by {@link BpmTaskHandler} when {@code bpm.worker.jfr.enabled} is set.
+ * Fields are only filled in when the recording actually keeps the event.
+ *
+ * @author Slava Yermakov
+ * @email v.yermakov@gmail.com
+ */
+public final class TaskEvents {
+
+    private static final String CATEGORY = "BPM Worker";
+
+    private TaskEvents() {
+    }
+
+    @Name("com.jeevision.bpm.worker.TaskExecution")
+    @Label("BPM Task Execution")
+    @Description("Execution of an external task by its worker method, including reporting it to the engine")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class Execution extends Event {
+        @Label("Topic")
+        String topic;
+        @Label("Task Id")
+        String taskId;
+        @Label("Process Definition Key")
+        String processDefinitionKey;
+        @Label("Outcome")
+        String outcome;
+
+        static Execution start() {
+            var event = new Execution();
+            event.begin();
+            return event;
+        }
+
+        void finish(ExternalTask externalTask, String outcome) {
+            end();
+            if (shouldCommit()) {
+                this.topic = externalTask.getTopicName();
+                this.taskId = externalTask.getId();
+                this.processDefinitionKey = externalTask.getProcessDefinitionKey();
+                this.outcome = outcome;
+                commit();
+            }
+        }
+    }
+
+    @Name("com.jeevision.bpm.worker.ArgumentConversion")
+    @Label("BPM Argument Conversion")
+    @Description("Resolution and conversion of the process variables passed to a worker method")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class Conversion extends Event {
+        @Label("Topic")
+        String topic;
+        @Label("Task Id")
+        String taskId;
+        @Label("Arguments")
+        int arguments;
+
+        static Conversion start() {
+            var event = new Conversion();
+            event.begin();
+            return event;
+        }
+
+        void finish(ExternalTask externalTask, int arguments) {
+            end();
+            if (shouldCommit()) {
+                this.topic = externalTask.getTopicName();
+                this.taskId = externalTask.getId();
+                this.arguments = arguments;
+                commit();
+            }
+        }
+    }
+
+    @Name("com.jeevision.bpm.worker.ResultProcessing")
+    @Label("BPM Result Processing")
+    @Description("Mapping of a worker method result to process variables")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class ResultProcessing extends Event {
+        @Label("Topic")
+        String topic;
+        @Label("Task Id")
+        String taskId;
+        @Label("Variables")
+        int variables;
+
+        static ResultProcessing start() {
+            var event = new ResultProcessing();
+            event.begin();
+            return event;
+        }
+
+        void finish(ExternalTask externalTask, int variables) {
+            end();
+            if (shouldCommit()) {
+                this.topic = externalTask.getTopicName();
+                this.taskId = externalTask.getId();
+                this.variables = variables;
+                commit();
+            }
+        }
+    }
+
+    @Name("com.jeevision.bpm.worker.EngineRequest")
+    @Label("BPM Engine Request")
+    @Description("REST round-trip reporting a task back to the engine")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class EngineRequest extends Event {
+        @Label("Topic")
+        String topic;
+        @Label("Task Id")
+        String taskId;
+        @Label("Operation")
+        String operation;
+
+        static EngineRequest start() {
+            var event = new EngineRequest();
+            event.begin();
+            return event;
+        }
+
+        void finish(ExternalTask externalTask, String operation) {
+            end();
+            if (shouldCommit()) {
+                this.topic = externalTask.getTopicName();
+                this.taskId = externalTask.getId();
+                this.operation = operation;
+                commit();
+            }
+        }
+    }
+}
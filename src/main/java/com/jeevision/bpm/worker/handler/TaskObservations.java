@@ -0,0 +1,69 @@
+package com.jeevision.bpm.worker.handler;
+
+import org.cibseven.bpm.client.task.ExternalTask;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.Getter;
+
+/**
+ * Observations created around task execution. With a no-op {@link ObservationRegistry}
+ * every factory method returns {@link Observation#NOOP} without allocating.
+ *
+ * @author Slava Yermakov
+ * @email v.yermakov@gmail.com
+ */
+public final class TaskObservations {
+
+    /** Whole execution of a task, parent of the observations below */
+    public static final String TASK = "bpm.worker.task.execution";
+    public static final String ARGUMENTS = "bpm.worker.task.argument.resolution";
+    public static final String METHOD = "bpm.worker.task.method";
+    public static final String ENGINE_REQUEST = "bpm.worker.task.engine.request";
+
+    private TaskObservations() {
+    }
+
+    public static Observation task(ExternalTask externalTask, ObservationRegistry registry) {
+        var observation = Observation.createNotStarted(TASK, () -> new TaskContext(externalTask), registry)
+                .contextualName("bpm task " + externalTask.getTopicName())
+                .lowCardinalityKeyValue("topic", String.valueOf(externalTask.getTopicName()));
+        highCardinality(observation, "task.id", externalTask.getId());
+        highCardinality(observation, "process.definition.key", externalTask.getProcessDefinitionKey());
+        highCardinality(observation, "process.instance.id", externalTask.getProcessInstanceId());
+        highCardinality(observation, "business.key", externalTask.getBusinessKey());
+        return observation;
+    }
+
+    public static Observation arguments(ObservationRegistry registry) {
+        return Observation.createNotStarted(ARGUMENTS, registry).contextualName("resolve arguments");
+    }
+
+    public static Observation method(ObservationRegistry registry) {
+        return Observation.createNotStarted(METHOD, registry).contextualName("invoke worker method");
+    }
+
+    public static Observation engineRequest(String operation, ObservationRegistry registry) {
+        return Observation.createNotStarted(ENGINE_REQUEST, registry)
+                .contextualName(operation)
+                .lowCardinalityKeyValue("operation", operation);
+    }
+
+    private static void highCardinality(Observation observation, String key, String value) {
+        if (value != null) {
+            observation.highCardinalityKeyValue(key, value);
+        }
+    }
+
+    /**
+     * Context of the {@link #TASK} observation, giving observation handlers access to the task.
+     */
+    @Getter
+    public static class TaskContext extends Observation.Context {
+        private final ExternalTask externalTask;
+
+        public TaskContext(ExternalTask externalTask) {
+            this.externalTask = externalTask;
+        }
+    }
+}
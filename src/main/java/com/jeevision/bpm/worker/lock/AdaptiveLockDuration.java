@@ -0,0 +1,67 @@
+package com.jeevision.bpm.worker.lock;
+
+import com.jeevision.bpm.worker.config.BpmWorkerProperties;
+
+import lombok.Getter;
+
+/**
+ * Lock duration of one worker method learned from its observed execution times:
+ * the configured percentile multiplied by a safety factor, kept within bounds.
+ * Until enough executions were observed the configured lock duration is used.
+ *
+ * @author Slava Yermakov
+ * @email v.yermakov@gmail.com
+ */
+public class AdaptiveLockDuration {
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final BpmWorkerProperties.Lock.Adaptive settings;
+    private final long configured;
+    /** Lock duration the topic is currently subscribed with */
+    @Getter
+    private volatile long current;
+    private volatile boolean warmedUp;
+
+    public AdaptiveLockDuration(long configured, BpmWorkerProperties.Lock.Adaptive settings) {
+        this.configured = configured;
+        this.settings = settings;
+        this.current = configured;
+    }
+
+    public void record(long millis) {
+        histogram.record(millis);
+    }
+
+    /**
+     * @return lock duration the next fetches should use
+     */
+    public long recommend() {
+        if (!warmedUp) {
+            if (histogram.getCount() < settings.getMinSamples()) {
+                return configured;
+            }
+            warmedUp = true;
+        }
+        long learned = (long) Math.ceil(histogram.percentile(settings.getPercentile()) * settings.getSafetyFactor());
+        return Math.max(settings.getMin(), Math.min(settings.getMax(), learned));
+    }
+
+    /**
+     * Moves to the recommended duration when it differs enough from the current one to warrant resubscribing,
+     * then fades out the samples the recommendation was based on. Samples are only faded out while there
+     * are plenty, so a topic that goes quiet keeps its learned duration.
+     *
+     * @return whether the current duration changed
+     */
+    public boolean adapt() {
+        long recommended = recommend();
+        boolean changed = Math.abs(recommended - current) > current * settings.getTolerance();
+        if (changed) {
+            current = recommended;
+        }
+        if (histogram.getCount() >= settings.getMinSamples()) {
+            histogram.decay();
+        }
+        return changed;
+    }
+}
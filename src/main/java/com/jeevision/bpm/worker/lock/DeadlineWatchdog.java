@@ -0,0 +1,111 @@
+package com.jeevision.bpm.worker.lock;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.jeevision.bpm.worker.model.TaskDeadline;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Interrupts worker methods that have clearly overrun the lock of their task. The engine
+ * rejects their result anyway, so stopping them frees the thread and any downstream resources.
+ *
+ * @author Slava Yermakov
+ * @email v.yermakov@gmail.com
+ */
+@Slf4j
+public class DeadlineWatchdog implements AutoCloseable {
+
+    private final long graceMillis;
+    private final Set<Watch> watches = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().daemon().name("bpm-deadline-watchdog").factory());
+
+    /**
+     * @param graceMillis how long past its deadline an execution may run before it is interrupted
+     * @param tickMillis how often running executions are checked
+     */
+    public DeadlineWatchdog(long graceMillis, long tickMillis) {
+        this.graceMillis = graceMillis;
+        scheduler.scheduleWithFixedDelay(this::interruptOverrun, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Watches the calling thread until the returned watch is closed.
+     */
+    public Watch watch(String taskId, TaskDeadline deadline) {
+        var watch = new Watch(taskId, deadline, Thread.currentThread());
+        watches.add(watch);
+        return watch;
+    }
+
+    public int getWatched() {
+        return watches.size();
+    }
+
+    /**
+     * Interrupts every watched execution past its deadline and grace; run each tick.
+     */
+    void interruptOverrun() {
+        for (var watch : watches) {
+            if (watch.deadline.remainingMillis() < -graceMillis) {
+                watch.interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        watches.clear();
+    }
+
+    /**
+     * An execution being watched; close it on the executing thread once the worker method returned.
+     */
+    public final class Watch implements AutoCloseable {
+        private final String taskId;
+        private final TaskDeadline deadline;
+        private final Thread thread;
+        private boolean closed;
+        private boolean interrupted;
+
+        private Watch(String taskId, TaskDeadline deadline, Thread thread) {
+            this.taskId = taskId;
+            this.deadline = deadline;
+            this.thread = thread;
+        }
+
+        private synchronized void interrupt() {
+            if (closed || interrupted) {
+                return;
+            }
+            interrupted = true;
+            watches.remove(this);
+            log.warn("Task {} overran its lock by {}ms, interrupting {}", 
+                    taskId, -deadline.remainingMillis(), thread.getName());
+            thread.interrupt();
+        }
+
+        public synchronized boolean isInterrupted() {
+            return interrupted;
+        }
+
+        /**
+         * Stops watching; a pending interrupt raised by the watchdog is cleared so it cannot
+         * leak into whatever the thread does next.
+         */
+        @Override
+        public synchronized void close() {
+            closed = true;
+            watches.remove(this);
+            if (interrupted && thread == Thread.currentThread()) {
+                Thread.interrupted();
+            }
+        }
+    }
+}
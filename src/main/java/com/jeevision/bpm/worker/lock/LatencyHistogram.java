@@ -0,0 +1,90 @@
+package com.jeevision.bpm.worker.lock;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free streaming histogram of durations in milliseconds with log-linear buckets:
+ * exact below 16ms, and eight buckets per power of two above, i.e. at most 12.5% error.
+ * Old samples are faded out by {@link #decay()}.
+ *
+ * @author Slava Yermakov
+ * @email v.yermakov@gmail.com
+ */
+public class LatencyHistogram {
+
+    private static final int LINEAR_BUCKETS = 16;
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40; // about 35 years in milliseconds
+    private static final int BUCKETS = LINEAR_BUCKETS + (MAX_EXPONENT - 4 + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    public void record(long millis) {
+        counts.incrementAndGet(indexOf(Math.max(0, millis)));
+    }
+
+    public long getCount() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * @param percentile between 0 and 1, e.g. {@code 0.99}
+     * @return upper bound of the bucket holding the percentile, or 0 when nothing was recorded
+     */
+    public long percentile(double percentile) {
+        var snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(total * percentile));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= target) {
+                return upperBound(i);
+            }
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    /**
+     * Halves every count, so recent samples weigh more than older ones.
+     */
+    public void decay() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.getAndUpdate(i, count -> count >> 1);
+        }
+    }
+
+    static int indexOf(long millis) {
+        if (millis < LINEAR_BUCKETS) {
+            return (int) millis;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(millis);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int subBucket = (int) (millis >> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_BUCKETS + (exponent - 4) * SUB_BUCKETS + subBucket;
+    }
+
+    static long upperBound(int index) {
+        if (index < LINEAR_BUCKETS) {
+            return index;
+        }
+        int exponent = (index - LINEAR_BUCKETS) / SUB_BUCKETS + 4;
+        int subBucket = (index - LINEAR_BUCKETS) % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return (1L << exponent) + subBucket * width + width - 1;
+    }
+}
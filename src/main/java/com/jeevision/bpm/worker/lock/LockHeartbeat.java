@@ -0,0 +1,238 @@
+package com.jeevision.bpm.worker.lock;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.LockSupport;
+
+import org.cibseven.bpm.client.task.ExternalTask;
+import org.cibseven.bpm.client.task.ExternalTaskService;
+
+import com.jeevision.bpm.worker.model.TaskDeadline;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the locks of running tasks alive, so topics can use short lock durations
+ * without limiting how long a worker method may run.
+ * <p>
+ * All tracked tasks share one hashed timer wheel driven by a single thread. Every tick
+ * the due leases of one bucket are extended; the {@code extendLock} calls themselves run
+ * on virtual threads so a slow engine never delays the wheel.
+ *
+ * @author Slava Yermakov
+ * @email v.yermakov@gmail.com
+ */
+@Slf4j
+public class LockHeartbeat implements AutoCloseable {
+
+    private static final int WHEEL_SIZE = 512;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    private final long tickNanos;
+    private final double renewalRatio;
+    @SuppressWarnings("unchecked")
+    private final Queue<Lease>[] wheel = new Queue[WHEEL_SIZE];
+    private final Queue<Lease> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger tracked = new AtomicInteger();
+    private final ExecutorService extender = Executors.newVirtualThreadPerTaskExecutor();
+    private final Thread ticker;
+    private final long startNanos = System.nanoTime();
+    private volatile boolean running = true;
+    private long tick;
+
+    /**
+     * @param tickMillis resolution of the wheel; extensions due within the same tick are fired together
+     * @param renewalRatio fraction of the lock duration after which a lock is extended, e.g. {@code 0.5}
+     */
+    public LockHeartbeat(long tickMillis, double renewalRatio) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick must be positive: " + tickMillis);
+        }
+        if (renewalRatio <= 0 || renewalRatio >= 1) {
+            throw new IllegalArgumentException("Renewal ratio must be between 0 and 1: " + renewalRatio);
+        }
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.renewalRatio = renewalRatio;
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel[i] = new ArrayDeque<>();
+        }
+        this.ticker = Thread.ofPlatform().daemon().name("bpm-lock-heartbeat").start(this::run);
+    }
+
+    /**
+     * Starts extending the lock of a task until the returned lease is released.
+     *
+     * @param lockDuration duration each extension locks the task for
+     */
+    public Lease track(ExternalTask externalTask, ExternalTaskService externalTaskService, long lockDuration) {
+        return track(externalTask, externalTaskService, lockDuration, null);
+    }
+    
+    /**
+     * Same as {@link #track(ExternalTask, ExternalTaskService, long)}, moving the given deadline with every extension.
+     */
+    public Lease track(ExternalTask externalTask, ExternalTaskService externalTaskService, long lockDuration, 
+            TaskDeadline deadline) {
+        var lease = new Lease(externalTask, externalTaskService, lockDuration, deadline);
+        lease.dueNanos = firstRenewal(externalTask, lockDuration);
+        tracked.incrementAndGet();
+        pending.add(lease);
+        return lease;
+    }
+
+    /**
+     * Renews once the renewal ratio of the lock has elapsed, measured from the lock expiration
+     * reported by the engine when known, so time spent queued before execution is accounted for.
+     */
+    private long firstRenewal(ExternalTask externalTask, long lockDuration) {
+        long now = System.nanoTime();
+        long renewIn = (long) (lockDuration * renewalRatio);
+        var lockExpirationTime = externalTask.getLockExpirationTime();
+        if (lockExpirationTime != null) {
+            long expiresIn = lockExpirationTime.getTime() - System.currentTimeMillis();
+            renewIn = Math.min(renewIn, expiresIn - (long) (lockDuration * (1 - renewalRatio)));
+        }
+        return now + TimeUnit.MILLISECONDS.toNanos(Math.max(0, renewIn));
+    }
+
+    /**
+     * @return number of tasks whose locks are currently kept alive
+     */
+    public int getTracked() {
+        return tracked.get();
+    }
+
+    private void run() {
+        while (running) {
+            long deadline = startNanos + (tick + 1) * tickNanos;
+            long sleep;
+            while (running && (sleep = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, sleep);
+            }
+            if (!running) {
+                return;
+            }
+            transferPending();
+            expireBucket(wheel[(int) (tick & WHEEL_MASK)]);
+            tick++;
+        }
+    }
+
+    private void transferPending() {
+        Lease lease;
+        while ((lease = pending.poll()) != null) {
+            if (lease.released) {
+                continue;
+            }
+            long dueTick = Math.max(tick, (lease.dueNanos - startNanos) / tickNanos);
+            lease.remainingRounds = (dueTick - tick) / WHEEL_SIZE;
+            wheel[(int) (dueTick & WHEEL_MASK)].add(lease);
+        }
+    }
+
+    private void expireBucket(Queue<Lease> bucket) {
+        for (var iterator = bucket.iterator(); iterator.hasNext();) {
+            var lease = iterator.next();
+            if (lease.released) {
+                iterator.remove();
+            } else if (lease.remainingRounds > 0) {
+                lease.remainingRounds--;
+            } else {
+                iterator.remove();
+                try {
+                    extender.execute(() -> extend(lease));
+                } catch (RejectedExecutionException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void extend(Lease lease) {
+        // Held for the whole engine call, so a release waits for it instead of racing it
+        lease.extending.lock();
+        try {
+            if (!lease.released && extendLock(lease)) {
+                lease.dueNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos((long) (lease.lockDuration * renewalRatio));
+                pending.add(lease);
+            }
+        } finally {
+            lease.extending.unlock();
+        }
+    }
+
+    private boolean extendLock(Lease lease) {
+        var externalTask = lease.externalTask;
+        try {
+            long extendedAt = System.currentTimeMillis();
+            lease.externalTaskService.extendLock(externalTask, lease.lockDuration);
+            if (lease.deadline != null) {
+                lease.deadline.extendTo(extendedAt + lease.lockDuration);
+            }
+            log.debug("Extended lock of task {} for topic {} by {}ms", 
+                    externalTask.getId(), externalTask.getTopicName(), lease.lockDuration);
+        } catch (Exception e) {
+            log.warn("Could not extend lock of task {} for topic {}, no longer extending it: {}", 
+                    externalTask.getId(), externalTask.getTopicName(), e.getMessage());
+            lease.release();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(ticker);
+        extender.shutdownNow();
+    }
+
+    /**
+     * A task whose lock is kept alive; release it once the task is reported back to the engine.
+     */
+    public final class Lease {
+        private final ExternalTask externalTask;
+        private final ExternalTaskService externalTaskService;
+        private final long lockDuration;
+        private final TaskDeadline deadline;
+        private final ReentrantLock extending = new ReentrantLock();
+        private volatile boolean released;
+        private volatile long dueNanos;
+        private long remainingRounds;
+
+        private Lease(ExternalTask externalTask, ExternalTaskService externalTaskService, long lockDuration, 
+                TaskDeadline deadline) {
+            this.externalTask = externalTask;
+            this.externalTaskService = externalTaskService;
+            this.lockDuration = lockDuration;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Stops extending the lock; an extension already calling the engine is awaited, so none
+         * reaches the engine once this returns.
+         */
+        public void release() {
+            extending.lock();
+            try {
+                if (!released) {
+                    released = true;
+                    tracked.decrementAndGet();
+                }
+            } finally {
+                extending.unlock();
+            }
+        }
+
+        public boolean isReleased() {
+            return released;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.jeevision.bpm.worker.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * {@link TaskMetrics} backed by a Micrometer {@link MeterRegistry}.
+ * <p>
+ * Meters, all tagged with {@code topic}:
+ * <ul>
+ *   <li>{@code bpm.worker.tasks.in.flight} - tasks currently executing</li>
+ *   <li>{@code bpm.worker.task.queue.delay} - time from fetch (lock) to start</li>
+ *   <li>{@code bpm.worker.task.payload} - estimated bytes of the fetched variables</li>
+ *   <li>{@code bpm.worker.task.conversion} - argument resolution and conversion time</li>
+ *   <li>{@code bpm.worker.task.invocation} - worker method time, tagged with {@code outcome}</li>
+ *   <li>{@code bpm.worker.tasks} - executed tasks, tagged with {@code outcome}</li>
+ *   <li>{@code bpm.worker.engine.call} - complete / failure / BPMN error round-trip, tagged with {@code operation}</li>
+ *   <li>{@code bpm.worker.task.report.delay} - wait for the completion pipeline before reporting</li>
+ *   <li>{@code bpm.worker.engine.call.retries} - repeated engine calls, tagged with {@code operation}</li>
+ *   <li>{@code bpm.worker.redelivery.cache} - redelivery guard lookups, tagged with {@code result} hit / miss</li>
+ * </ul>
+ *
+ * @author Slava Yermakov
+ * @email v.yermakov@gmail.com
+ */
+@RequiredArgsConstructor
+public class MicrometerTaskMetrics implements TaskMetrics {
+
+    private final MeterRegistry registry;
+
+    @Override
+    public TopicMetrics forTopic(String topic) {
+        return new MicrometerTopicMetrics(registry, topic);
+    }
+
+    private static final class MicrometerTopicMetrics implements TopicMetrics {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final Timer queueDelay;
+        private final DistributionSummary payloadSize;
+        private final Timer conversion;
+        private final Timer[] invocation;
+        private final Counter[] tasks;
+        private final Timer[] engineCalls;
+        private final Timer reportDelay;
+        private final Counter[] engineCallRetries;
+        private final Counter redeliveryHits;
+        private final Counter redeliveryMisses;
+
+        MicrometerTopicMetrics(MeterRegistry registry, String topic) {
+            Gauge.builder("bpm.worker.tasks.in.flight", inFlight, AtomicInteger::get)
+                    .description("Tasks currently executing")
+                    .tag("topic", topic)
+                    .register(registry);
+            queueDelay = Timer.builder("bpm.worker.task.queue.delay")
+                    .description("Time from fetching a task to starting its worker method")
+                    .tag("topic", topic)
+                    .register(registry);
+            payloadSize = DistributionSummary.builder("bpm.worker.task.payload")
+                    .description("Estimated heap footprint of the variables a task was fetched with")
+                    .baseUnit("bytes")
+                    .tag("topic", topic)
+                    .register(registry);
+            conversion = Timer.builder("bpm.worker.task.conversion")
+                    .description("Time spent resolving worker method arguments")
+                    .tag("topic", topic)
+                    .register(registry);
+
+            var outcomes = Outcome.values();
+            invocation = new Timer[outcomes.length];
+            tasks = new Counter[outcomes.length];
+            for (var outcome : outcomes) {
+                invocation[outcome.ordinal()] = Timer.builder("bpm.worker.task.invocation")
+                        .description("Time spent in the worker method")
+                        .tags("topic", topic, "outcome", outcome.tag())
+                        .register(registry);
+                tasks[outcome.ordinal()] = Counter.builder("bpm.worker.tasks")
+                        .description("Executed tasks")
+                        .tags("topic", topic, "outcome", outcome.tag())
+                        .register(registry);
+            }
+
+            var calls = EngineCall.values();
+            engineCalls = new Timer[calls.length];
+            engineCallRetries = new Counter[calls.length];
+            for (var call : calls) {
+                engineCalls[call.ordinal()] = Timer.builder("bpm.worker.engine.call")
+                        .description("Round-trip of reporting a task back to the engine")
+                        .tags("topic", topic, "operation", call.tag())
+                        .register(registry);
+                engineCallRetries[call.ordinal()] = Counter.builder("bpm.worker.engine.call.retries")
+                        .description("Engine calls repeated after a transient error")
+                        .tags("topic", topic, "operation", call.tag())
+                        .register(registry);
+            }
+            reportDelay = Timer.builder("bpm.worker.task.report.delay")
+                    .description("Time a finished task waited for the completion pipeline")
+                    .tag("topic", topic)
+                    .register(registry);
+            redeliveryHits = Counter.builder("bpm.worker.redelivery.cache")
+                    .description("Fetched tasks looked up among recently finished ones")
+                    .tags("topic", topic, "result", "hit")
+                    .register(registry);
+            redeliveryMisses = Counter.builder("bpm.worker.redelivery.cache")
+                    .description("Fetched tasks looked up among recently finished ones")
+                    .tags("topic", topic, "result", "miss")
+                    .register(registry);
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        public void taskStarted() {
+            inFlight.incrementAndGet();
+        }
+
+        @Override
+        public void taskFinished(Outcome outcome) {
+            inFlight.decrementAndGet();
+            tasks[outcome.ordinal()].increment();
+        }
+
+        @Override
+        public void queueDelay(long millis) {
+            queueDelay.record(millis, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void payloadSize(long bytes) {
+            payloadSize.record(bytes);
+        }
+
+        @Override
+        public void conversion(long nanos) {
+            conversion.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void invocation(long nanos, Outcome outcome) {
+            invocation[outcome.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void engineCall(EngineCall call, long nanos) {
+            engineCalls[call.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void reportDelay(long nanos) {
+            reportDelay.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void engineCallRetried(EngineCall call) {
+            engineCallRetries[call.ordinal()].increment();
+        }
+
+        @Override
+        public void redelivery(boolean hit) {
+            (hit ? redeliveryHits : redeliveryMisses).increment();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.jeevision.bpm.worker.metrics;
+
+/**
+ * Source of the per-topic meters recorded while tasks are executed.
+ *
+ * @author Slava Yermakov
+ * @email v.yermakov@gmail.com
+ */
+@FunctionalInterface
+public interface TaskMetrics {
+
+    /** Records nothing, used when no meter registry is available */
+    TaskMetrics NOOP = topic -> TopicMetrics.NOOP;
+
+    /**
+     * Registers the meters of a topic. Called once per worker method when its handler is created.
+     */
+    TopicMetrics forTopic(String topic);
+}
@@ -0,0 +1,88 @@
+package com.jeevision.bpm.worker.metrics;
+
+/**
+ * Meters of a single topic, registered up front so recording a task allocates nothing.
+ *
+ * @author Slava Yermakov
+ * @email v.yermakov@gmail.com
+ */
+public interface TopicMetrics {
+
+    TopicMetrics NOOP = new TopicMetrics() {
+    };
+
+    /** Whether recording has any effect, so callers can skip gathering the values */
+    default boolean isEnabled() {
+        return false;
+    }
+
+    default void taskStarted() {
+    }
+
+    default void taskFinished(Outcome outcome) {
+    }
+
+    /** Time between the task being locked by the fetch and its worker method being started */
+    default void queueDelay(long millis) {
+    }
+
+    /** Estimated heap footprint of the variables the task was fetched with */
+    default void payloadSize(long bytes) {
+    }
+
+    /** Time spent resolving and converting the worker method arguments */
+    default void conversion(long nanos) {
+    }
+
+    /** Time spent in the worker method, tagged with the outcome of the task */
+    default void invocation(long nanos, Outcome outcome) {
+    }
+
+    /** Round-trip of a call reporting the task back to the engine */
+    default void engineCall(EngineCall call, long nanos) {
+    }
+
+    /** Time a finished task waited for the completion pipeline before being reported */
+    default void reportDelay(long nanos) {
+    }
+
+    /** A call reporting the task failed transiently and is repeated */
+    default void engineCallRetried(EngineCall call) {
+    }
+
+    /** Lookup of a fetched task among the recently finished ones, a hit skips the worker method */
+    default void redelivery(boolean hit) {
+    }
+
+    enum Outcome {
+        COMPLETED("completed"),
+        BPMN_ERROR("bpmn_error"),
+        FAILURE("failure");
+
+        private final String tag;
+
+        Outcome(String tag) {
+            this.tag = tag;
+        }
+
+        public String tag() {
+            return tag;
+        }
+    }
+
+    enum EngineCall {
+        COMPLETE("complete"),
+        HANDLE_BPMN_ERROR("handle_bpmn_error"),
+        HANDLE_FAILURE("handle_failure");
+
+        private final String tag;
+
+        EngineCall(String tag) {
+            this.tag = tag;
+        }
+
+        public String tag() {
+            return tag;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.jeevision.bpm.worker.model;
+
+import org.cibseven.bpm.client.task.ExternalTask;
+
+/**
+ * Resolves the value of a single worker method argument from an external task.
+ * Resolvers are compiled once per parameter, so resolution does no per-task type inspection.
+ *
+ * @author Slava Yermakov
+ * @email v.yermakov@gmail.com
+ */
+@FunctionalInterface
+public interface ArgumentResolver {
+    
+    Object resolve(ExternalTask externalTask);
+}
@@ -0,0 +1,16 @@
+package com.jeevision.bpm.worker.model;
+
+import java.util.Map;
+
+/**
+ * Turns a worker method result into process variables for {@code @BpmResult(flatten = true)}.
+ * Flatteners are built once per worker method from its declared return type.
+ *
+ * @author Slava Yermakov
+ * @email v.yermakov@gmail.com
+ */
+@FunctionalInterface
+public interface ResultFlattener {
+    
+    Map<String, Object> flatten(Object result);
+}
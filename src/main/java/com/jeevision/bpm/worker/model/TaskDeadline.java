@@ -0,0 +1,68 @@
+package com.jeevision.bpm.worker.model;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.cibseven.bpm.client.task.ExternalTask;
+
+/**
+ * Time left before the lock of the executing task expires and its result would be rejected.
+ * Declare a parameter of this type on a worker method to use the remaining budget, e.g. as
+ * timeout of downstream calls. The deadline moves forward when the lock is extended.
+ *
+ * @author Slava Yermakov
+ * @email v.yermakov@gmail.com
+ */
+public final class TaskDeadline {
+
+    private volatile long expiresAtMillis;
+
+    private TaskDeadline(long expiresAtMillis) {
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    /**
+     * @return deadline at the lock expiration of the task, unbounded if the engine did not report one
+     */
+    public static TaskDeadline of(ExternalTask externalTask) {
+        var lockExpirationTime = externalTask.getLockExpirationTime();
+        return new TaskDeadline(lockExpirationTime != null ? lockExpirationTime.getTime() : Long.MAX_VALUE);
+    }
+
+    public static TaskDeadline at(Instant expiresAt) {
+        return new TaskDeadline(expiresAt.toEpochMilli());
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAtMillis == Long.MAX_VALUE ? Instant.MAX : Instant.ofEpochMilli(expiresAtMillis);
+    }
+
+    public long remainingMillis() {
+        return expiresAtMillis == Long.MAX_VALUE ? Long.MAX_VALUE : expiresAtMillis - System.currentTimeMillis();
+    }
+
+    /**
+     * @return time left, never negative
+     */
+    public Duration remaining() {
+        return Duration.ofMillis(Math.max(0, remainingMillis()));
+    }
+
+    public boolean isExpired() {
+        return remainingMillis() <= 0;
+    }
+
+    /**
+     * Moves the deadline after the lock was extended; a deadline never moves backwards.
+     */
+    public void extendTo(long expiresAtMillis) {
+        if (expiresAtMillis > this.expiresAtMillis) {
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "TaskDeadline[expiresAt=" + getExpiresAt() + "]";
+    }
+}
@@ -0,0 +1,64 @@
+package com.jeevision.bpm.worker.model;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Strongly typed entry point into a worker method, built once at registration.
+ * Exceptions thrown by the worker method propagate unchanged.
+ *
+ * @author Slava Yermakov
+ * @email v.yermakov@gmail.com
+ */
+@FunctionalInterface
+public interface WorkerInvoker {
+    
+    Object invoke(Object[] args) throws Throwable;
+    
+    /**
+     * Creates an invoker backed by a {@link MethodHandle} bound to the bean and spread over an
+     * argument array, so dispatch needs neither per-call access checks nor argument boxing into
+     * a reflective call. Falls back to reflection when the bean is not an instance of the
+     * method's declaring class (e.g. an interface-based proxy).
+     */
+    static WorkerInvoker of(Object bean, Method method) {
+        boolean isStatic = Modifier.isStatic(method.getModifiers());
+        if (!isStatic && !method.getDeclaringClass().isInstance(bean)) {
+            return reflective(bean, method);
+        }
+        
+        ReflectionUtils.makeAccessible(method);
+        try {
+            MethodHandle handle = MethodHandles.lookup().unreflect(method);
+            if (!isStatic) {
+                handle = handle.bindTo(bean);
+            }
+            MethodHandle spread = handle
+                    .asSpreader(Object[].class, method.getParameterCount())
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+            return args -> (Object) spread.invokeExact(args);
+        } catch (IllegalAccessException e) {
+            return reflective(bean, method);
+        }
+    }
+    
+    /**
+     * Creates an invoker using {@link Method#invoke}, unwrapping {@link InvocationTargetException}.
+     */
+    static WorkerInvoker reflective(Object bean, Method method) {
+        ReflectionUtils.makeAccessible(method);
+        return args -> {
+            try {
+                return method.invoke(bean, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause() != null ? e.getCause() : e;
+            }
+        };
+    }
+}
@@ -1,5 +1,8 @@
 package com.jeevision.bpm.worker.model;
 
+import org.springframework.expression.Expression;
+
+import com.fasterxml.jackson.databind.JavaType;
 import com.jeevision.bpm.worker.annotation.BpmError;
 import com.jeevision.bpm.worker.annotation.BpmResult;
 import com.jeevision.bpm.worker.annotation.BpmVariable;
@@ -23,12 +26,22 @@ import java.util.Map;
 public class WorkerMethod {
     private Object bean;
     private Method method;
+    private WorkerInvoker invoker;
     private BpmWorker workerAnnotation;
     private BpmResult resultAnnotation;
+    private ResultFlattener resultFlattener;
     private List<ParameterInfo> parameters;
+    private ArgumentResolver[] argumentResolvers;
     private String topic;
     private Map<Class<? extends Throwable>, ThrowsExceptionInfo> throwsExceptionMappings;
     private List<ThrowsExceptionInfo> throwsExceptions;
+    /** Variables to fetch with each task, {@code null} to fetch all of them */
+    private List<String> variableNames;
+    private boolean localVariables;
+    /** Whether the method processes all tasks of a fetch at once, see {@link BpmWorker#batch()} */
+    private boolean batch;
+    /** Element type a batch method receives, {@code null} for raw {@code ExternalTask}s */
+    private JavaType batchElementType;
     
     @Data
     @Builder
@@ -39,6 +52,8 @@ public class WorkerMethod {
         private boolean required;
         private String defaultValue;
         private Class<?> type;
+        /** Full generic type of the parameter, e.g. {@code List<Item>} rather than {@code List} */
+        private JavaType javaType;
     }
     
     @Data
@@ -48,5 +63,9 @@ public class WorkerMethod {
         private BpmError bpmErrorAnnotation;
         private String errorCode;
         private String errorMessage;
+        /** {@link #errorCode} parsed at registration, {@code null} if not yet parsed */
+        private Expression errorCodeExpression;
+        /** {@link #errorMessage} parsed at registration, {@code null} if blank or not yet parsed */
+        private Expression errorMessageExpression;
     }
 }
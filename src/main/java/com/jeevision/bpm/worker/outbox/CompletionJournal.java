@@ -0,0 +1,261 @@
+package com.jeevision.bpm.worker.outbox;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only journal of task reports in memory-mapped segment files of a local directory.
+ * <p>
+ * Each record is {@code [length][crc][type][sequence][payload]}; the length is written last,
+ * so a record torn by a crash reads as the end of its segment. An entry stays pending until
+ * an acknowledgement with its sequence is appended. Segments are appended to one at a time;
+ * the oldest segment is deleted once all its entries are acknowledged, which keeps every
+ * acknowledgement on disk for as long as the entry it refers to.
+ * <p>
+ * Writes reach the page cache right away and so survive a crash of the process. With
+ * {@code sync}, every record is also forced to the device. A closed journal rejects writes
+ * with an {@link IllegalStateException}.
+ *
+ * @author Slava Yermakov
+ * @email v.yermakov@gmail.com
+ */
+@Slf4j
+public class CompletionJournal implements AutoCloseable {
+
+    private static final String PREFIX = "outbox-";
+    private static final String SUFFIX = ".journal";
+    /** length and crc */
+    private static final int FRAME = 8;
+    /** type and sequence, covered by the length and crc */
+    private static final int HEADER = 9;
+    private static final byte ENTRY = 1;
+    private static final byte ACK = 2;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean sync;
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+    private final Map<Long, Segment> pending = new HashMap<>();
+    private final Map<Long, byte[]> recovered = new LinkedHashMap<>();
+    private final CRC32 crc = new CRC32();
+    private Segment current;
+    private long nextSequence = 1;
+    private boolean closed;
+
+    public CompletionJournal(Path directory, int segmentSize, boolean sync) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.sync = sync;
+        Files.createDirectories(directory);
+        recover();
+        roll();
+    }
+
+    /**
+     * Entries found pending when the journal was opened, by sequence in append order.
+     */
+    public synchronized Map<Long, byte[]> recovered() {
+        return new LinkedHashMap<>(recovered);
+    }
+
+    /**
+     * @return sequence of the entry, to acknowledge it with
+     * @throws IllegalArgumentException if the payload does not fit in a segment
+     * @throws IllegalStateException if the journal is closed
+     */
+    public synchronized long append(byte[] payload) throws IOException {
+        ensureOpen();
+        if (FRAME + HEADER + payload.length > segmentSize) {
+            throw new IllegalArgumentException("Entry of " + payload.length + " bytes exceeds the journal segment size");
+        }
+        long sequence = nextSequence++;
+        write(ENTRY, sequence, payload);
+        pending.put(sequence, current);
+        current.outstanding++;
+        return sequence;
+    }
+
+    /**
+     * @throws IllegalStateException if the journal is closed
+     */
+    public synchronized void acknowledge(long sequence) throws IOException {
+        ensureOpen();
+        var segment = pending.remove(sequence);
+        recovered.remove(sequence);
+        if (segment == null) {
+            return;
+        }
+        write(ACK, sequence, new byte[0]);
+        segment.outstanding--;
+        deleteAcknowledgedSegments();
+    }
+
+    public synchronized int getPending() {
+        return pending.size();
+    }
+    
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Completion journal in " + directory + " is closed");
+        }
+    }
+
+    private void write(byte type, long sequence, byte[] payload) throws IOException {
+        int length = HEADER + payload.length;
+        if (current.position + FRAME + length > segmentSize) {
+            roll();
+        }
+        var buffer = current.buffer;
+        int position = current.position;
+        buffer.put(position + FRAME, type);
+        buffer.putLong(position + FRAME + 1, sequence);
+        buffer.put(position + FRAME + HEADER, payload);
+        buffer.putInt(position + 4, checksum(buffer, position, length));
+        // Written last: a record without its length is not there
+        buffer.putInt(position, length);
+        current.position = position + FRAME + length;
+        if (sync) {
+            buffer.force(position, FRAME + length);
+        }
+    }
+
+    private int checksum(MappedByteBuffer buffer, int position, int length) {
+        crc.reset();
+        crc.update(buffer.slice(position + FRAME, length));
+        return (int) crc.getValue();
+    }
+
+    private void roll() throws IOException {
+        long id = current != null ? current.id + 1
+                : segments.isEmpty() ? 1 : segments.peekLast().id + 1;
+        if (current != null) {
+            current.release();
+        }
+        current = Segment.open(directory.resolve(PREFIX + id + SUFFIX), id, segmentSize);
+        segments.addLast(current);
+        deleteAcknowledgedSegments();
+    }
+
+    private void deleteAcknowledgedSegments() {
+        while (segments.size() > 1 && segments.peekFirst() != current && segments.peekFirst().outstanding == 0) {
+            var segment = segments.removeFirst();
+            segment.release();
+            try {
+                Files.deleteIfExists(segment.path);
+            } catch (IOException e) {
+                log.warn("Could not delete acknowledged journal segment {}: {}", segment.path, e.getMessage());
+            }
+        }
+    }
+
+    private void recover() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            var paths = files.filter(path -> segmentId(path) > 0)
+                    .sorted((a, b) -> Long.compare(segmentId(a), segmentId(b)))
+                    .toList();
+            for (var path : paths) {
+                var segment = Segment.open(path, segmentId(path), (int) Math.max(segmentSize, Files.size(path)));
+                segments.addLast(segment);
+                scan(segment);
+                segment.release();
+            }
+        }
+        if (!recovered.isEmpty()) {
+            log.info("Recovered {} unacknowledged task reports from {}", recovered.size(), directory);
+        }
+    }
+
+    private void scan(Segment segment) {
+        var buffer = segment.buffer;
+        int size = buffer.capacity();
+        int position = 0;
+        while (position + FRAME <= size) {
+            int length = buffer.getInt(position);
+            if (length < HEADER || position + FRAME + length > size
+                    || buffer.getInt(position + 4) != checksum(buffer, position, length)) {
+                break;
+            }
+            byte type = buffer.get(position + FRAME);
+            long sequence = buffer.getLong(position + FRAME + 1);
+            if (type == ENTRY) {
+                var payload = new byte[length - HEADER];
+                buffer.get(position + FRAME + HEADER, payload);
+                recovered.put(sequence, payload);
+                pending.put(sequence, segment);
+                segment.outstanding++;
+            } else if (type == ACK) {
+                recovered.remove(sequence);
+                var acknowledged = pending.remove(sequence);
+                if (acknowledged != null) {
+                    acknowledged.outstanding--;
+                }
+            }
+            nextSequence = Math.max(nextSequence, sequence + 1);
+            position += FRAME + length;
+        }
+    }
+
+    private static long segmentId(Path path) {
+        var name = path.getFileName().toString();
+        if (!name.startsWith(PREFIX) || !name.endsWith(SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name, PREFIX.length(), name.length() - SUFFIX.length(), 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (current != null) {
+            current.buffer.force();
+            current.release();
+        }
+    }
+
+    private static final class Segment {
+
+        private final long id;
+        private final Path path;
+        private MappedByteBuffer buffer;
+        private int position;
+        private int outstanding;
+
+        private Segment(long id, Path path, MappedByteBuffer buffer) {
+            this.id = id;
+            this.path = path;
+            this.buffer = buffer;
+        }
+
+        static Segment open(Path path, long id, int size) throws IOException {
+            try (var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                return new Segment(id, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            }
+        }
+
+        /**
+         * Drops the reference to the mapping; it is unmapped once collected.
+         */
+        void release() {
+            buffer = null;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.jeevision.bpm.worker.outbox;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.cibseven.bpm.client.task.ExternalTaskService;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jeevision.bpm.worker.execution.CompletionPipeline;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the result of a finished task on disk until the engine has accepted it.
+ * <p>
+ * Every report is written to the {@link CompletionJournal} before it is sent and acknowledged
+ * once the engine answered. A report that fails because the engine is unreachable is parked
+ * instead of being lost; {@link #replay()} sends parked reports again by task id, extending
+ * the lock first when it is about to expire. Reports still in the journal when the worker
+ * starts are parked as well, so results survive a restart - provided the worker id is stable,
+ * since the engine only accepts reports from the worker holding the lock.
+ * <p>
+ * Replayed variables get their type back if it is a string, number, boolean or date; any
+ * other value is replayed in its JSON form, as maps and lists. Type names read from disk
+ * are never used to load classes.
+ *
+ * @author Slava Yermakov
+ * @email v.yermakov@gmail.com
+ */
+@Slf4j
+public class CompletionOutbox implements AutoCloseable {
+
+    /** Types restored on replay, by the name recorded in the journal */
+    private static final Map<String, Class<?>> RESTORABLE_TYPES = Stream.of(String.class, Boolean.class, 
+            Integer.class, Long.class, Short.class, Byte.class, Double.class, Float.class, 
+            BigDecimal.class, BigInteger.class, Date.class)
+            .collect(Collectors.toUnmodifiableMap(Class::getName, type -> type));
+
+    private final CompletionJournal journal;
+    private final ObjectMapper objectMapper;
+    private final long extendBelow;
+    private final long lockExtension;
+    private final Map<Long, OutboxEntry> parked = new ConcurrentHashMap<>();
+    private volatile ExternalTaskService externalTaskService;
+
+    /**
+     * @param extendBelow   remaining lock time (ms) below which the lock is extended before a replay
+     * @param lockExtension lock duration (ms) requested by that extension
+     */
+    public CompletionOutbox(CompletionJournal journal, ObjectMapper objectMapper, long extendBelow, long lockExtension) {
+        this.journal = journal;
+        this.objectMapper = objectMapper;
+        this.extendBelow = extendBelow;
+        this.lockExtension = lockExtension;
+        journal.recovered().forEach((sequence, payload) -> {
+            try {
+                parked.put(sequence, read(payload));
+            } catch (IOException e) {
+                log.warn("Dropping unreadable task report {} from the outbox: {}", sequence, e.getMessage());
+                acknowledge(sequence);
+            }
+        });
+    }
+
+    /**
+     * Journals the report, then performs the engine call. A transient failure of the call parks
+     * the report for replay instead of failing; any other failure is rethrown. Once the outbox
+     * is closed, the call is performed unjournaled.
+     */
+    public void deliver(OutboxEntry entry, ExternalTaskService externalTaskService, Runnable engineCall) {
+        this.externalTaskService = externalTaskService;
+        long sequence;
+        try {
+            sequence = journal.append(objectMapper.writeValueAsBytes(entry));
+        } catch (IOException | IllegalArgumentException | IllegalStateException e) {
+            log.warn("Could not write the report of task {} to the outbox, sending it unjournaled: {}",
+                    entry.taskId(), e.getMessage());
+            engineCall.run();
+            return;
+        }
+
+        try {
+            engineCall.run();
+        } catch (RuntimeException e) {
+            if (CompletionPipeline.isTransient(e)) {
+                log.warn("Engine unreachable, keeping the {} of task {} in the outbox: {}",
+                        entry.kind(), entry.taskId(), e.getMessage());
+                parked.put(sequence, entry);
+                return;
+            }
+            acknowledge(sequence);
+            throw e;
+        }
+        acknowledge(sequence);
+    }
+
+    /**
+     * Sends the parked reports again, keeping those the engine is still unreachable for.
+     */
+    public void replay() {
+        var service = externalTaskService;
+        if (service == null || parked.isEmpty()) {
+            return;
+        }
+        for (var parkedEntry : parked.entrySet()) {
+            long sequence = parkedEntry.getKey();
+            if (replay(sequence, parkedEntry.getValue(), service)) {
+                parked.remove(sequence);
+                acknowledge(sequence);
+            }
+        }
+    }
+
+    /**
+     * @return whether the report is settled, either accepted or rejected for good
+     */
+    private boolean replay(long sequence, OutboxEntry entry, ExternalTaskService service) {
+        try {
+            long now = System.currentTimeMillis();
+            if (entry.lockExpiration() > 0 && entry.lockExpiration() - now < extendBelow) {
+                service.extendLock(entry.taskId(), lockExtension);
+                parked.put(sequence, entry.withLockExpiration(now + lockExtension));
+            }
+            send(entry, service);
+            log.info("Replayed the {} of task {} from the outbox", entry.kind(), entry.taskId());
+            return true;
+        } catch (RuntimeException e) {
+            if (CompletionPipeline.isTransient(e)) {
+                return false;
+            }
+            log.warn("Engine rejected the replayed {} of task {}, dropping it: {}", entry.kind(), entry.taskId(), e.getMessage());
+            return true;
+        }
+    }
+
+    private static void send(OutboxEntry entry, ExternalTaskService service) {
+        switch (entry.kind()) {
+            case COMPLETE -> service.complete(entry.taskId(), 
+                    entry.variables() != null ? entry.variables() : Map.of(), Map.of());
+            case BPMN_ERROR -> service.handleBpmnError(entry.taskId(), entry.errorCode(), entry.errorMessage(), Map.of());
+            case FAILURE -> service.handleFailure(entry.taskId(), entry.errorMessage(), entry.errorDetails(),
+                    entry.retries(), entry.retryTimeout());
+        }
+    }
+
+    private OutboxEntry read(byte[] payload) throws IOException {
+        var entry = objectMapper.readValue(payload, OutboxEntry.class);
+        if (entry.variables() == null || entry.variableTypes() == null) {
+            return entry;
+        }
+        Map<String, Object> variables = new HashMap<>(entry.variables());
+        entry.variableTypes().forEach((name, type) -> variables.computeIfPresent(name, (key, value) -> restore(value, type)));
+        return entry.withVariables(variables);
+    }
+
+    /**
+     * Converts a variable read back as JSON into the type it was written from, keeping the JSON form
+     * for types that are not restorable or if the conversion fails.
+     */
+    private Object restore(Object value, String type) {
+        var restorable = RESTORABLE_TYPES.get(type);
+        if (restorable == null) {
+            log.debug("Replaying variable of type {} in its JSON form", type);
+            return value;
+        }
+        try {
+            return objectMapper.convertValue(value, restorable);
+        } catch (IllegalArgumentException e) {
+            log.debug("Replaying variable of type {} in its JSON form: {}", type, e.getMessage());
+            return value;
+        }
+    }
+
+    private void acknowledge(long sequence) {
+        try {
+            journal.acknowledge(sequence);
+        } catch (IOException | IllegalStateException e) {
+            log.warn("Could not acknowledge task report {} in the outbox: {}", sequence, e.getMessage());
+        }
+    }
+
+    public int getParked() {
+        return parked.size();
+    }
+
+    @Override
+    public void close() {
+        journal.close();
+    }
+}
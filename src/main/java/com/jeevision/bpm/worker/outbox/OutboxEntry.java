@@ -0,0 +1,78 @@
+package com.jeevision.bpm.worker.outbox;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.cibseven.bpm.client.task.ExternalTask;
+
+/**
+ * Report of a finished task as written to the {@link CompletionJournal}, replayable by task id
+ * without the fetched {@link ExternalTask}. {@code variableTypes} keeps the class of each
+ * variable so it is restored as the type the worker method returned.
+ *
+ * @author Slava Yermakov
+ * @email v.yermakov@gmail.com
+ */
+public record OutboxEntry(
+        Kind kind,
+        String taskId,
+        String topic,
+        long lockExpiration,
+        Map<String, Object> variables,
+        Map<String, String> variableTypes,
+        String errorCode,
+        String errorMessage,
+        String errorDetails,
+        int retries,
+        long retryTimeout) {
+    
+    public enum Kind {
+        COMPLETE,
+        BPMN_ERROR,
+        FAILURE
+    }
+    
+    public static OutboxEntry complete(ExternalTask externalTask, Map<String, Object> variables) {
+        return new OutboxEntry(Kind.COMPLETE, externalTask.getId(), externalTask.getTopicName(), lockExpiration(externalTask), 
+                variables, typesOf(variables), null, null, null, 0, 0);
+    }
+    
+    public static OutboxEntry bpmnError(ExternalTask externalTask, String errorCode, String errorMessage) {
+        return new OutboxEntry(Kind.BPMN_ERROR, externalTask.getId(), externalTask.getTopicName(), lockExpiration(externalTask), 
+                null, null, errorCode, errorMessage, null, 0, 0);
+    }
+    
+    public static OutboxEntry failure(ExternalTask externalTask, String errorMessage, String errorDetails, 
+            int retries, long retryTimeout) {
+        return new OutboxEntry(Kind.FAILURE, externalTask.getId(), externalTask.getTopicName(), lockExpiration(externalTask), 
+                null, null, null, errorMessage, errorDetails, retries, retryTimeout);
+    }
+    
+    public OutboxEntry withLockExpiration(long lockExpiration) {
+        return new OutboxEntry(kind, taskId, topic, lockExpiration, variables, variableTypes, 
+                errorCode, errorMessage, errorDetails, retries, retryTimeout);
+    }
+    
+    public OutboxEntry withVariables(Map<String, Object> variables) {
+        return new OutboxEntry(kind, taskId, topic, lockExpiration, variables, variableTypes, 
+                errorCode, errorMessage, errorDetails, retries, retryTimeout);
+    }
+    
+    private static long lockExpiration(ExternalTask externalTask) {
+        var lockExpirationTime = externalTask.getLockExpirationTime();
+        return lockExpirationTime != null ? lockExpirationTime.getTime() : 0;
+    }
+    
+    private static Map<String, String> typesOf(Map<String, Object> variables) {
+        if (variables == null || variables.isEmpty()) {
+            return null;
+        }
+        Map<String, String> types = new HashMap<>();
+        variables.forEach((name, value) -> {
+            if (value != null) {
+                types.put(name, value.getClass().getName());
+            }
+        });
+        return types;
+    }
+}
@@ -3,32 +3,49 @@ package com.jeevision.bpm.worker.registry;
 import java.lang.reflect.AnnotatedType;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
+import java.lang.reflect.RecordComponent;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
+import org.cibseven.bpm.client.task.ExternalTask;
 import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.expression.BeanFactoryResolver;
 import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.env.Environment;
 import org.springframework.expression.Expression;
 import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.SpelCompilerMode;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
+import org.springframework.util.function.SingletonSupplier;
 
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jeevision.bpm.worker.annotation.BpmError;
 import com.jeevision.bpm.worker.annotation.BpmResult;
 import com.jeevision.bpm.worker.annotation.BpmVariable;
 import com.jeevision.bpm.worker.annotation.BpmWorker;
+import com.jeevision.bpm.worker.handler.ArgumentResolvers;
+import com.jeevision.bpm.worker.handler.AsyncResults;
+import com.jeevision.bpm.worker.handler.ErrorExpressions;
+import com.jeevision.bpm.worker.handler.ResultFlatteners;
+import com.jeevision.bpm.worker.model.ArgumentResolver;
+import com.jeevision.bpm.worker.model.TaskDeadline;
+import com.jeevision.bpm.worker.model.WorkerInvoker;
 import com.jeevision.bpm.worker.model.WorkerMethod;
 
 import lombok.extern.slf4j.Slf4j;
@@ -47,16 +64,38 @@ public class BpmWorkerRegistry implements BeanPostProcessor {
     private final Map<String, WorkerMethod> workerMethods = new ConcurrentHashMap<>();
     private final ApplicationContext applicationContext;
     private final ExpressionParser expressionParser;
+    private final Supplier<ExpressionParser> errorExpressionParser = SingletonSupplier.of(this::createErrorExpressionParser);
+    private final Supplier<ObjectMapper> objectMapper;
     
     public BpmWorkerRegistry(ApplicationContext applicationContext) {
         this.applicationContext = applicationContext;
         this.expressionParser = createExpressionParser();
+        this.objectMapper = SingletonSupplier.of(ObjectMapper::new);
+    }
+    
+    public BpmWorkerRegistry(ApplicationContext applicationContext, ObjectProvider<ObjectMapper> objectMapperProvider) {
+        this.applicationContext = applicationContext;
+        this.expressionParser = createExpressionParser();
+        // Resolved on first registration so the ObjectMapper is not created while post-processors are set up
+        this.objectMapper = SingletonSupplier.of(() -> objectMapperProvider.getIfAvailable(ObjectMapper::new));
     }
     
     protected ExpressionParser createExpressionParser() {
         return new SpelExpressionParser();
     }
     
+    /**
+     * Parser for {@link BpmError} code and message templates, compiled according to
+     * {@code bpm.worker.errors.spel-compiler-mode}.
+     */
+    protected ExpressionParser createErrorExpressionParser() {
+        Environment environment = applicationContext.getEnvironment();
+        SpelCompilerMode compilerMode = environment != null
+                ? environment.getProperty("bpm.worker.errors.spel-compiler-mode", SpelCompilerMode.class, SpelCompilerMode.OFF)
+                : SpelCompilerMode.OFF;
+        return ErrorExpressions.parser(compilerMode);
+    }
+    
     @Override
     public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
         var beanClass = AopUtils.getTargetClass(bean);
@@ -79,17 +118,36 @@ public class BpmWorkerRegistry implements BeanPostProcessor {
         }
         
         List<WorkerMethod.ParameterInfo> parameters = extractParameters(method);
+        JavaType batchElementType = workerAnnotation.batch() ? batchElementType(method, parameters) : null;
         BpmResult resultAnnotation = AnnotatedElementUtils.findMergedAnnotation(method, BpmResult.class);
         Map<Class<? extends Throwable>, WorkerMethod.ThrowsExceptionInfo> exceptionMappings = extractExceptionMappings(method);
+        if (!workerAnnotation.fetchAllVariables() && !workerAnnotation.batch() && takesExternalTask(parameters)) {
+            log.warn("Worker method {}.{} takes the ExternalTask but only fetches the variables of its parameters; "
+                    + "other variables read from the task are null unless fetchAllVariables = true",
+                    AopUtils.getTargetClass(bean).getSimpleName(), method.getName());
+        }
         
         WorkerMethod workerMethod = WorkerMethod.builder()
                 .bean(bean)
                 .method(method)
+                .invoker(WorkerInvoker.of(bean, method))
                 .workerAnnotation(workerAnnotation)
                 .resultAnnotation(resultAnnotation)
+                .resultFlattener(resultAnnotation != null && resultAnnotation.flatten()
+                        ? ResultFlatteners.compile(AsyncResults.valueType(method), resultAnnotation, objectMapper.get())
+                        : null)
                 .parameters(parameters)
+                .argumentResolvers(workerAnnotation.batch() 
+                        ? new ArgumentResolver[0] 
+                        : ArgumentResolvers.compile(parameters, objectMapper.get()))
                 .topic(topic)
                 .throwsExceptionMappings(exceptionMappings)
+                .variableNames(workerAnnotation.fetchAllVariables() ? null 
+                        : workerAnnotation.batch() ? collectBatchVariableNames(batchElementType) 
+                        : collectVariableNames(parameters, workerAnnotation.idempotencyKey()))
+                .localVariables(workerAnnotation.localVariables())
+                .batch(workerAnnotation.batch())
+                .batchElementType(batchElementType)
                 .build();
         
         workerMethods.put(topic, workerMethod);
@@ -108,6 +166,53 @@ public class BpmWorkerRegistry implements BeanPostProcessor {
                 .toList();
     }
     
+    /**
+     * @return element type of the single {@code List} parameter, {@code null} for {@code List<ExternalTask>}
+     */
+    private JavaType batchElementType(Method method, List<WorkerMethod.ParameterInfo> parameters) {
+        var returnType = method.getReturnType();
+        if (parameters.size() != 1 || !List.class.equals(parameters.get(0).getType())
+                || !(void.class.equals(returnType) || List.class.equals(returnType))) {
+            throw new IllegalStateException("Batch worker method " + method.getDeclaringClass().getSimpleName() + "." 
+                    + method.getName() + " must take a single List parameter and return void or a List");
+        }
+        
+        JavaType elementType = parameters.get(0).getJavaType().getContentType();
+        if (elementType == null || elementType.hasRawClass(ExternalTask.class)) {
+            return null;
+        }
+        return elementType;
+    }
+    
+    /**
+     * Only the components of a record input are fetched; any other input type may read every variable.
+     */
+    private List<String> collectBatchVariableNames(JavaType elementType) {
+        if (elementType == null || !elementType.getRawClass().isRecord()) {
+            return null;
+        }
+        return Stream.of(elementType.getRawClass().getRecordComponents())
+                .map(RecordComponent::getName)
+                .toList();
+    }
+    
+    private static boolean takesExternalTask(List<WorkerMethod.ParameterInfo> parameters) {
+        return parameters.stream().anyMatch(parameter -> ExternalTask.class.equals(parameter.getType()));
+    }
+    
+    private List<String> collectVariableNames(List<WorkerMethod.ParameterInfo> parameters, String idempotencyKey) {
+        Set<String> names = new LinkedHashSet<>();
+        for (var parameter : parameters) {
+            if (!ExternalTask.class.equals(parameter.getType()) && !TaskDeadline.class.equals(parameter.getType())) {
+                names.add(parameter.getVariableName());
+            }
+        }
+        if (StringUtils.hasText(idempotencyKey)) {
+            names.add(idempotencyKey);
+        }
+        return List.copyOf(names);
+    }
+    
     private WorkerMethod.ParameterInfo createParameterInfo(Parameter parameter) {
         BpmVariable variableAnnotation = parameter.getAnnotation(BpmVariable.class);
         String variableName = determineVariableName(parameter, variableAnnotation);
@@ -119,6 +224,7 @@ public class BpmWorkerRegistry implements BeanPostProcessor {
                 .required(variableAnnotation != null && variableAnnotation.required())
                 .defaultValue(variableAnnotation != null ? variableAnnotation.defaultValue() : "")
                 .type(parameter.getType())
+                .javaType(objectMapper.get().getTypeFactory().constructType(parameter.getParameterizedType()))
                 .build();
     }
     
@@ -183,6 +289,8 @@ public class BpmWorkerRegistry implements BeanPostProcessor {
                         .bpmErrorAnnotation(bpmError)
                         .errorCode(bpmError.code())
                         .errorMessage(StringUtils.hasText(bpmError.message()) ? bpmError.message() : "")
+                        .errorCodeExpression(ErrorExpressions.parse(bpmError.code(), errorExpressionParser.get()))
+                        .errorMessageExpression(ErrorExpressions.parse(bpmError.message(), errorExpressionParser.get()))
                         .build();
                 
                 mappings.put(throwableType, exceptionInfo);
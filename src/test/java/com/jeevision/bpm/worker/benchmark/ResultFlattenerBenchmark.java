@@ -0,0 +1,70 @@
+package com.jeevision.bpm.worker.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jeevision.bpm.worker.annotation.BpmResult;
+import com.jeevision.bpm.worker.handler.ResultFlatteners;
+import com.jeevision.bpm.worker.model.ResultFlattener;
+
+/**
+ * Compares the compiled record flattener against the Jackson {@code convertValue(result, Map.class)} round-trip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResultFlattenerBenchmark {
+
+    private ResultFlattener compiled;
+    private ResultFlattener jackson;
+    private OrderResult result;
+
+    @Setup
+    public void setUp() throws Exception {
+        var objectMapper = new ObjectMapper();
+        var annotation = ResultFlattenerBenchmark.class.getDeclaredMethod("flattened").getAnnotation(BpmResult.class);
+        compiled = ResultFlatteners.compile(OrderResult.class, annotation, objectMapper);
+        jackson = ResultFlatteners.jackson(annotation, objectMapper);
+        result = new OrderResult("ORD123", 99.50, "CONFIRMED", 3, "customer-42", true);
+    }
+
+    @Benchmark
+    public Map<String, Object> jacksonRoundTrip() {
+        return jackson.flatten(result);
+    }
+
+    @Benchmark
+    public Map<String, Object> compiledFlattener() {
+        return compiled.flatten(result);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(ResultFlattenerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    @BpmResult(flatten = true, flattenPrefix = "order_")
+    private static void flattened() {
+    }
+
+    public record OrderResult(String orderId, Double total, String status, Integer items, String customerId,
+            Boolean express) {}
+}
@@ -0,0 +1,68 @@
+package com.jeevision.bpm.worker.benchmark;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.jeevision.bpm.worker.model.WorkerInvoker;
+
+/**
+ * Compares the generated {@link WorkerInvoker} against the former {@link Method#invoke} dispatch.
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.jeevision.bpm.worker.benchmark.WorkerInvokerBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorkerInvokerBenchmark {
+
+    private Worker bean;
+    private Method method;
+    private WorkerInvoker invoker;
+    private Object[] args;
+
+    @Setup
+    public void setUp() throws Exception {
+        bean = new Worker();
+        method = Worker.class.getMethod("process", String.class, Integer.class, double.class);
+        invoker = WorkerInvoker.of(bean, method);
+        args = new Object[] {"order-1", 42, 99.5};
+    }
+
+    @Benchmark
+    public Object reflectiveInvoke() throws Exception {
+        return method.invoke(bean, args);
+    }
+
+    @Benchmark
+    public Object generatedInvoker() throws Throwable {
+        return invoker.invoke(args);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(WorkerInvokerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    public static class Worker {
+        public String process(String orderId, Integer quantity, double amount) {
+            return orderId.length() + quantity + amount > 0 ? orderId : null;
+        }
+    }
+}
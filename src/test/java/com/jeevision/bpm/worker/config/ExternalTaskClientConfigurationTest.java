@@ -1,6 +1,9 @@
 package com.jeevision.bpm.worker.config;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
@@ -18,11 +21,15 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.lang.reflect.Constructor;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import org.cibseven.bpm.client.ExternalTaskClient;
 import org.cibseven.bpm.client.ExternalTaskClientBuilder;
+import org.cibseven.bpm.client.backoff.BackoffStrategy;
+import org.cibseven.bpm.client.backoff.ErrorAwareBackoffStrategy;
+import org.cibseven.bpm.client.exception.ExternalTaskClientException;
 import org.cibseven.bpm.client.interceptor.ClientRequestContext;
 import org.cibseven.bpm.client.interceptor.ClientRequestInterceptor;
 import org.cibseven.bpm.client.topic.TopicSubscriptionBuilder;
@@ -35,12 +42,18 @@ import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.event.ContextRefreshedEvent;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jeevision.bpm.worker.execution.AdaptiveBackoffStrategy;
+import com.jeevision.bpm.worker.execution.FetchBoundary;
 import com.jeevision.bpm.worker.handler.BpmTaskHandler;
+import com.jeevision.bpm.worker.metrics.TaskMetrics;
 import com.jeevision.bpm.worker.registry.BpmWorkerRegistry;
 
+import io.micrometer.observation.ObservationRegistry;
+
 @ExtendWith(MockitoExtension.class)
 @MockitoSettings(strictness = Strictness.LENIENT)
 class ExternalTaskClientConfigurationTest {
@@ -57,6 +70,15 @@ class ExternalTaskClientConfigurationTest {
     @Mock
     private ObjectMapper objectMapper;
     
+    @Mock
+    private ObjectProvider<TaskMetrics> taskMetrics;
+    
+    @Mock
+    private ObjectProvider<ObservationRegistry> observationRegistry;
+    
+    @Mock
+    private ObjectProvider<BackoffStrategy> backoffStrategy;
+    
     @Mock
     private BpmTaskHandler bpmTaskHandler;
     
@@ -73,13 +95,15 @@ class ExternalTaskClientConfigurationTest {
 
     @BeforeEach
     void setUp() {
-        configuration = new ExternalTaskClientConfiguration(properties, workerRegistry, objectMapper);
+        configuration = new ExternalTaskClientConfiguration(properties, workerRegistry, objectMapper, taskMetrics, observationRegistry, 
+                backoffStrategy);
         lenient().when(properties.getAuth()).thenReturn(auth);
         lenient().when(properties.getWorkerId()).thenReturn(null);
         lenient().when(properties.getMaxTasks()).thenReturn(10);
         lenient().when(properties.getAsyncResponseTimeout()).thenReturn(5000L);
         lenient().when(properties.getLockDuration()).thenReturn(10000L);
         lenient().when(properties.isUsePriority()).thenReturn(false);
+        lenient().when(properties.getExecution()).thenReturn(new BpmWorkerProperties.Execution());
     }
 
     @Test
@@ -171,6 +195,90 @@ class ExternalTaskClientConfigurationTest {
         }
     }
 
+    @Test
+    void testExternalTaskClient_UsesBackoffStrategyBean() {
+        // Given
+        var custom = new AdaptiveBackoffStrategy(100, 2.0, 1000, 0);
+        when(backoffStrategy.getIfAvailable()).thenReturn(custom);
+        
+        try (MockedStatic<ExternalTaskClient> mockedStatic = mockStatic(ExternalTaskClient.class)) {
+            mockedStatic.when(() -> ExternalTaskClient.create()).thenReturn(clientBuilder);
+            when(clientBuilder.baseUrl(any())).thenReturn(clientBuilder);
+            when(clientBuilder.workerId(isNull())).thenReturn(clientBuilder);
+            when(clientBuilder.maxTasks(anyInt())).thenReturn(clientBuilder);
+            when(clientBuilder.asyncResponseTimeout(anyLong())).thenReturn(clientBuilder);
+            when(clientBuilder.lockDuration(anyLong())).thenReturn(clientBuilder);
+            when(clientBuilder.usePriority(anyBoolean())).thenReturn(clientBuilder);
+            when(clientBuilder.build()).thenReturn(externalTaskClient);
+            
+            // When
+            configuration.externalTaskClient();
+            
+            // Then
+            var installed = ArgumentCaptor.forClass(BackoffStrategy.class);
+            verify(clientBuilder).backoffStrategy(installed.capture());
+            assertTrue(installed.getValue() instanceof FetchBoundary);
+            assertSame(custom, ((FetchBoundary) installed.getValue()).getDelegate());
+        }
+    }
+
+    @Test
+    void testExternalTaskClient_ForwardsFetchErrorsToErrorAwareBackoffBean() {
+        // Given
+        var custom = mock(ErrorAwareBackoffStrategy.class);
+        var error = mock(ExternalTaskClientException.class);
+        when(backoffStrategy.getIfAvailable()).thenReturn(custom);
+        
+        try (MockedStatic<ExternalTaskClient> mockedStatic = mockStatic(ExternalTaskClient.class)) {
+            mockedStatic.when(() -> ExternalTaskClient.create()).thenReturn(clientBuilder);
+            when(clientBuilder.baseUrl(any())).thenReturn(clientBuilder);
+            when(clientBuilder.workerId(isNull())).thenReturn(clientBuilder);
+            when(clientBuilder.maxTasks(anyInt())).thenReturn(clientBuilder);
+            when(clientBuilder.asyncResponseTimeout(anyLong())).thenReturn(clientBuilder);
+            when(clientBuilder.lockDuration(anyLong())).thenReturn(clientBuilder);
+            when(clientBuilder.usePriority(anyBoolean())).thenReturn(clientBuilder);
+            when(clientBuilder.build()).thenReturn(externalTaskClient);
+            
+            // When
+            configuration.externalTaskClient();
+            
+            // Then
+            var installed = ArgumentCaptor.forClass(BackoffStrategy.class);
+            verify(clientBuilder).backoffStrategy(installed.capture());
+            assertTrue(installed.getValue() instanceof ErrorAwareBackoffStrategy);
+            ((ErrorAwareBackoffStrategy) installed.getValue()).reconfigure(List.of(), error);
+            verify(custom).reconfigure(List.of(), error);
+        }
+    }
+
+    @Test
+    void testExternalTaskClient_WithoutBackoff() {
+        // Given
+        var backoff = new BpmWorkerProperties.Backoff();
+        backoff.setStrategy(BpmWorkerProperties.Backoff.Strategy.NONE);
+        when(properties.getBackoff()).thenReturn(backoff);
+        
+        try (MockedStatic<ExternalTaskClient> mockedStatic = mockStatic(ExternalTaskClient.class)) {
+            mockedStatic.when(() -> ExternalTaskClient.create()).thenReturn(clientBuilder);
+            when(clientBuilder.baseUrl(any())).thenReturn(clientBuilder);
+            when(clientBuilder.workerId(isNull())).thenReturn(clientBuilder);
+            when(clientBuilder.maxTasks(anyInt())).thenReturn(clientBuilder);
+            when(clientBuilder.asyncResponseTimeout(anyLong())).thenReturn(clientBuilder);
+            when(clientBuilder.lockDuration(anyLong())).thenReturn(clientBuilder);
+            when(clientBuilder.usePriority(anyBoolean())).thenReturn(clientBuilder);
+            when(clientBuilder.build()).thenReturn(externalTaskClient);
+            
+            // When
+            configuration.externalTaskClient();
+            
+            // Then
+            var installed = ArgumentCaptor.forClass(BackoffStrategy.class);
+            verify(clientBuilder).backoffStrategy(installed.capture());
+            assertNull(((FetchBoundary) installed.getValue()).getDelegate());
+            assertEquals(0, installed.getValue().calculateBackoffTime());
+        }
+    }
+
     @Test
     void testSubscribeToTopics() throws Exception {
         // Given
@@ -191,6 +299,7 @@ class ExternalTaskClientConfigurationTest {
         var mockTopicSubscriptionBuilder = mock(TopicSubscriptionBuilder.class);
         when(mockTopicSubscriptionBuilder.lockDuration(anyLong())).thenReturn(mockTopicSubscriptionBuilder);
         when(mockTopicSubscriptionBuilder.handler(any())).thenReturn(mockTopicSubscriptionBuilder);
+        when(mockTopicSubscriptionBuilder.variables(any(String[].class))).thenReturn(mockTopicSubscriptionBuilder);
         when(externalTaskClient.subscribe(anyString())).thenReturn(mockTopicSubscriptionBuilder);
         
         // Set up the external task client to be available for subscription
@@ -226,6 +335,88 @@ class ExternalTaskClientConfigurationTest {
         }
     }
 
+    @Test
+    void testExternalTaskClient_VirtualThreadsCapsMaxTasksToInFlightLimit() {
+        // Given
+        var execution = new BpmWorkerProperties.Execution();
+        execution.setMode(BpmWorkerProperties.Execution.Mode.VIRTUAL_THREADS);
+        execution.setMaxInFlight(4);
+        when(properties.getExecution()).thenReturn(execution);
+        when(properties.getBaseUrl()).thenReturn("http://localhost:8080/engine-rest");
+        when(auth.getUsername()).thenReturn("");
+        when(auth.getPassword()).thenReturn("");
+        when(auth.getToken()).thenReturn("");
+        
+        try (MockedStatic<ExternalTaskClient> mockedStatic = mockStatic(ExternalTaskClient.class)) {
+            mockedStatic.when(() -> ExternalTaskClient.create()).thenReturn(clientBuilder);
+            when(clientBuilder.baseUrl(anyString())).thenReturn(clientBuilder);
+            when(clientBuilder.workerId(isNull())).thenReturn(clientBuilder);
+            when(clientBuilder.maxTasks(anyInt())).thenReturn(clientBuilder);
+            when(clientBuilder.asyncResponseTimeout(anyLong())).thenReturn(clientBuilder);
+            when(clientBuilder.lockDuration(anyLong())).thenReturn(clientBuilder);
+            when(clientBuilder.usePriority(anyBoolean())).thenReturn(clientBuilder);
+            when(clientBuilder.build()).thenReturn(externalTaskClient);
+            
+            // When
+            configuration.externalTaskClient();
+            
+            // Then
+            verify(clientBuilder).maxTasks(4);
+        }
+    }
+
+    @Test
+    void testSubscribeToTopics_DedicatedClientUsesWorkerFetchSettings() throws Exception {
+        // Given
+        var workerMethod = mock(com.jeevision.bpm.worker.model.WorkerMethod.class);
+        var workerAnnotation = mock(com.jeevision.bpm.worker.annotation.BpmWorker.class);
+        when(workerAnnotation.lockDuration()).thenReturn(10000L);
+        when(workerAnnotation.dedicatedClient()).thenReturn(true);
+        when(workerAnnotation.fetchSize()).thenReturn(100);
+        when(workerAnnotation.asyncResponseTimeout()).thenReturn(20000L);
+        when(workerMethod.getWorkerAnnotation()).thenReturn(workerAnnotation);
+        when(workerMethod.getTopic()).thenReturn("high-volume");
+        when(workerRegistry.getAllWorkerMethods()).thenReturn(Map.of("high-volume", workerMethod));
+        
+        var dedicatedClient = mock(ExternalTaskClient.class);
+        var mockTopicSubscriptionBuilder = mock(TopicSubscriptionBuilder.class);
+        when(mockTopicSubscriptionBuilder.lockDuration(anyLong())).thenReturn(mockTopicSubscriptionBuilder);
+        when(mockTopicSubscriptionBuilder.handler(any())).thenReturn(mockTopicSubscriptionBuilder);
+        when(mockTopicSubscriptionBuilder.variables(any(String[].class))).thenReturn(mockTopicSubscriptionBuilder);
+        when(dedicatedClient.subscribe(anyString())).thenReturn(mockTopicSubscriptionBuilder);
+        
+        when(properties.getBaseUrl()).thenReturn("http://localhost:8080/engine-rest");
+        when(auth.getUsername()).thenReturn("");
+        when(auth.getPassword()).thenReturn("");
+        when(auth.getToken()).thenReturn("");
+        
+        var mockContext = mock(org.springframework.context.ApplicationContext.class);
+        when(contextRefreshedEvent.getApplicationContext()).thenReturn(mockContext);
+        when(mockContext.getParent()).thenReturn(null);
+        
+        try (MockedStatic<ExternalTaskClient> mockedStatic = mockStatic(ExternalTaskClient.class)) {
+            mockedStatic.when(() -> ExternalTaskClient.create()).thenReturn(clientBuilder);
+            when(clientBuilder.baseUrl(anyString())).thenReturn(clientBuilder);
+            when(clientBuilder.workerId(isNull())).thenReturn(clientBuilder);
+            when(clientBuilder.maxTasks(anyInt())).thenReturn(clientBuilder);
+            when(clientBuilder.asyncResponseTimeout(anyLong())).thenReturn(clientBuilder);
+            when(clientBuilder.lockDuration(anyLong())).thenReturn(clientBuilder);
+            when(clientBuilder.usePriority(anyBoolean())).thenReturn(clientBuilder);
+            when(clientBuilder.build()).thenReturn(externalTaskClient, dedicatedClient);
+            
+            configuration.externalTaskClient();
+            
+            // When
+            configuration.subscribeToTopics(contextRefreshedEvent);
+            
+            // Then
+            verify(clientBuilder).maxTasks(100);
+            verify(clientBuilder).asyncResponseTimeout(20000L);
+            verify(dedicatedClient).subscribe("high-volume");
+            verify(externalTaskClient, never()).subscribe(anyString());
+        }
+    }
+
     @Test
     void testBearerTokenInterceptor() throws Exception {
         // Given
@@ -0,0 +1,61 @@
+package com.jeevision.bpm.worker.execution;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+
+import org.cibseven.bpm.client.task.ExternalTask;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveBackoffStrategyTest {
+
+    @Test
+    void testCalculateBackoffTime_GrowsWithEmptyFetches() {
+        var strategy = new AdaptiveBackoffStrategy(500, 4.0, 60000, 0);
+        assertThat(strategy.calculateBackoffTime()).isZero();
+
+        strategy.reconfigure(List.of());
+        assertThat(strategy.calculateBackoffTime()).isEqualTo(500);
+        strategy.reconfigure(List.of());
+        assertThat(strategy.calculateBackoffTime()).isEqualTo(2000);
+        strategy.reconfigure(List.of());
+        assertThat(strategy.calculateBackoffTime()).isEqualTo(8000);
+
+        for (int i = 0; i < 100; i++) {
+            strategy.reconfigure(List.of());
+        }
+        assertThat(strategy.calculateBackoffTime()).isEqualTo(60000);
+    }
+
+    @Test
+    void testReconfigure_ResetsAsSoonAsTasksArrive() {
+        var strategy = new AdaptiveBackoffStrategy(500, 4.0, 60000, 0);
+        strategy.reconfigure(List.of());
+        strategy.reconfigure(List.of());
+
+        strategy.reconfigure(List.of(mock(ExternalTask.class)));
+
+        assertThat(strategy.getEmptyFetches()).isZero();
+        assertThat(strategy.calculateBackoffTime()).isZero();
+    }
+
+    @Test
+    void testCalculateBackoffTime_AppliesJitter() {
+        var strategy = new AdaptiveBackoffStrategy(1000, 2.0, 60000, 0.5);
+        strategy.reconfigure(List.of());
+
+        for (int i = 0; i < 50; i++) {
+            assertThat(strategy.calculateBackoffTime()).isBetween(500L, 1000L);
+        }
+    }
+
+    @Test
+    void testConstructor_RejectsInvalidSettings() {
+        assertThatThrownBy(() -> new AdaptiveBackoffStrategy(1000, 2.0, 500, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AdaptiveBackoffStrategy(100, 0.5, 500, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
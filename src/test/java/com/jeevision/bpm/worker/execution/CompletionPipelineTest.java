@@ -0,0 +1,151 @@
+package com.jeevision.bpm.worker.execution;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.cibseven.bpm.client.exception.ConnectionLostException;
+import org.cibseven.bpm.client.exception.RestException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class CompletionPipelineTest {
+
+    private final CompletionPipeline pipeline = new CompletionPipeline(1, 1, 3, 1);
+
+    @AfterEach
+    void tearDown() {
+        pipeline.close();
+    }
+
+    @Test
+    void testCall_RetriesTransientErrors() {
+        var attempts = new AtomicInteger();
+        var retries = new AtomicInteger();
+
+        pipeline.call(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw mock(ConnectionLostException.class);
+            }
+        }, retries::incrementAndGet);
+
+        assertThat(attempts).hasValue(3);
+        assertThat(retries).hasValue(2);
+    }
+
+    @Test
+    void testCall_GivesUpAfterMaxAttempts() {
+        var attempts = new AtomicInteger();
+        var unavailable = restException(503);
+
+        assertThatThrownBy(() -> pipeline.call(() -> {
+            attempts.incrementAndGet();
+            throw unavailable;
+        }, () -> { })).isSameAs(unavailable);
+
+        assertThat(attempts).hasValue(3);
+    }
+
+    @Test
+    void testCall_DoesNotRetryFinalErrors() {
+        var attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> pipeline.call(() -> {
+            attempts.incrementAndGet();
+            throw restException(404);
+        }, () -> { })).isInstanceOf(RestException.class);
+
+        assertThat(attempts).hasValue(1);
+    }
+
+    @Test
+    void testIsTransient() {
+        assertThat(CompletionPipeline.isTransient(mock(ConnectionLostException.class))).isTrue();
+        assertThat(CompletionPipeline.isTransient(restException(502))).isTrue();
+        assertThat(CompletionPipeline.isTransient(restException(429))).isTrue();
+        assertThat(CompletionPipeline.isTransient(restException(500))).isFalse();
+        assertThat(CompletionPipeline.isTransient(new IllegalStateException())).isFalse();
+    }
+
+    @Test
+    void testCall_GivesUpWhileOtherCallsAreBeingRepeated() throws Exception {
+        var repeating = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var firstAttempts = new AtomicInteger();
+        pipeline.execute(() -> pipeline.call(() -> {
+            if (firstAttempts.incrementAndGet() == 1) {
+                throw mock(ConnectionLostException.class);
+            }
+            repeating.countDown();
+            await(release);
+        }, () -> { }));
+        assertThat(repeating.await(5, TimeUnit.SECONDS)).isTrue();
+
+        var attempts = new AtomicInteger();
+        try {
+            assertThatThrownBy(() -> pipeline.call(() -> {
+                attempts.incrementAndGet();
+                throw mock(ConnectionLostException.class);
+            }, () -> { })).isInstanceOf(ConnectionLostException.class);
+        } finally {
+            release.countDown();
+        }
+
+        assertThat(attempts).hasValue(1);
+    }
+
+    @Test
+    void testExecute_OverflowReportsOffTheCallerWhenQueueIsFull() throws Exception {
+        var blocked = new CountDownLatch(1);
+        var started = new CountDownLatch(1);
+        pipeline.execute(() -> {
+            started.countDown();
+            await(blocked);
+        });
+        started.await(5, TimeUnit.SECONDS);
+        pipeline.execute(() -> { });
+        assertThat(pipeline.getQueued()).isEqualTo(1);
+
+        var reporter = new CompletableFuture<Thread>();
+        pipeline.execute(() -> reporter.complete(Thread.currentThread()));
+
+        assertThat(reporter.get(5, TimeUnit.SECONDS)).isNotSameAs(Thread.currentThread());
+        blocked.countDown();
+    }
+
+    @Test
+    void testExecute_ReportsSubmittedAfterShutdown() throws Exception {
+        var overflowed = new AtomicInteger();
+        try (var stopped = new CompletionPipeline(1, 1, 1, 1, report -> {
+            overflowed.incrementAndGet();
+            report.run();
+        })) {
+            stopped.shutdown(1000);
+
+            var report = CompletableFuture.supplyAsync(() -> "reported", stopped);
+
+            assertThat(report.get(5, TimeUnit.SECONDS)).isEqualTo("reported");
+            assertThat(overflowed).hasValue(1);
+        }
+    }
+
+    private static RestException restException(int status) {
+        var exception = mock(RestException.class);
+        when(exception.getHttpStatusCode()).thenReturn(status);
+        return exception;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.jeevision.bpm.worker.execution;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.cibseven.bpm.client.backoff.BackoffStrategy;
+import org.cibseven.bpm.client.backoff.ErrorAwareBackoffStrategy;
+import org.cibseven.bpm.client.exception.ExternalTaskClientException;
+import org.junit.jupiter.api.Test;
+
+class FetchBoundaryTest {
+
+    @Test
+    void testReconfigure_NotifiesListenersBeforeTheBackoff() {
+        var delegate = mock(BackoffStrategy.class);
+        var listener = mock(Runnable.class);
+        when(delegate.calculateBackoffTime()).thenReturn(750L);
+        var boundary = new FetchBoundary(delegate);
+        boundary.onFetchHandedOver(listener);
+
+        boundary.reconfigure(List.of());
+
+        var order = inOrder(listener, delegate);
+        order.verify(listener).run();
+        order.verify(delegate).reconfigure(List.of());
+        assertThat(boundary.calculateBackoffTime()).isEqualTo(750);
+    }
+
+    @Test
+    void testReconfigure_ForwardsFetchErrorsToErrorAwareDelegate() {
+        var delegate = mock(ErrorAwareBackoffStrategy.class);
+        var listener = mock(Runnable.class);
+        var error = mock(ExternalTaskClientException.class);
+        var boundary = new FetchBoundary(delegate);
+        boundary.onFetchHandedOver(listener);
+
+        boundary.reconfigure(List.of(), error);
+
+        verify(listener).run();
+        verify(delegate).reconfigure(List.of(), error);
+    }
+
+    @Test
+    void testReconfigure_PassesFetchErrorsOverForPlainDelegate() {
+        var delegate = mock(BackoffStrategy.class);
+        var boundary = new FetchBoundary(delegate);
+
+        boundary.reconfigure(List.of(), mock(ExternalTaskClientException.class));
+
+        verify(delegate).reconfigure(List.of());
+    }
+
+    @Test
+    void testReconfigure_KeepsNotifyingWhenAListenerFails() {
+        var failing = mock(Runnable.class);
+        var listener = mock(Runnable.class);
+        doThrow(new IllegalStateException("boom")).when(failing).run();
+        var boundary = new FetchBoundary(null);
+        boundary.onFetchHandedOver(failing);
+        boundary.onFetchHandedOver(listener);
+
+        boundary.reconfigure(List.of());
+
+        verify(listener).run();
+        assertThat(boundary.calculateBackoffTime()).isZero();
+    }
+}
@@ -0,0 +1,99 @@
+package com.jeevision.bpm.worker.execution;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.cibseven.bpm.client.backoff.BackoffStrategy;
+import org.junit.jupiter.api.Test;
+
+class FetchControllerTest {
+
+    private final TaskAdmission admission = new TaskAdmission(10);
+    private final BackoffStrategy idleBackoff = mock(BackoffStrategy.class);
+    private final FetchController controller = new FetchController(admission, 5, 1000, 100, 5000, idleBackoff);
+
+    @Test
+    void testTryAdmit_GrantsMaxTasksBeforeFirstFetch() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(controller.tryAdmit()).isTrue();
+        }
+        assertThat(controller.tryAdmit()).isFalse();
+    }
+
+    @Test
+    void testReconfigure_BudgetFollowsFreeSlots() throws InterruptedException {
+        acquire(8);
+
+        controller.reconfigure(List.of());
+
+        assertThat(controller.startable()).isEqualTo(2);
+        assertThat(controller.tryAdmit()).isTrue();
+        assertThat(controller.tryAdmit()).isTrue();
+        assertThat(controller.tryAdmit()).isFalse();
+    }
+
+    @Test
+    void testReconfigure_CountsSlotsFreeingUpInTime() throws InterruptedException {
+        acquire(10);
+        // Tasks take 500ms, so each running slot frees up twice within a second
+        controller.taskCompleted(TimeUnit.MILLISECONDS.toNanos(500));
+
+        controller.reconfigure(List.of());
+
+        assertThat(controller.startable()).isEqualTo(5);
+        assertThat(controller.isSaturated()).isFalse();
+    }
+
+    @Test
+    void testReconfigure_SubtractsQueuedTasks() throws InterruptedException {
+        acquire(7);
+        controller.taskQueued();
+        controller.taskQueued();
+
+        controller.reconfigure(List.of());
+
+        assertThat(controller.startable()).isEqualTo(1);
+    }
+
+    @Test
+    void testCalculateBackoffTime_PausesWhileSaturated() throws InterruptedException {
+        acquire(10);
+        controller.taskCompleted(TimeUnit.SECONDS.toNanos(20));
+
+        controller.reconfigure(List.of());
+
+        assertThat(controller.isSaturated()).isTrue();
+        assertThat(controller.tryAdmit()).isFalse();
+        // 20s spread over 10 running tasks
+        assertThat(controller.calculateBackoffTime()).isEqualTo(2000);
+    }
+
+    @Test
+    void testCalculateBackoffTime_DelegatesToIdleBackoffWhenNotSaturated() {
+        when(idleBackoff.calculateBackoffTime()).thenReturn(500L);
+
+        controller.reconfigure(List.of());
+
+        verify(idleBackoff).reconfigure(List.of());
+        assertThat(controller.calculateBackoffTime()).isEqualTo(500);
+    }
+
+    @Test
+    void testTaskCompleted_SmoothsExecutionTime() {
+        controller.taskCompleted(TimeUnit.MILLISECONDS.toNanos(1000));
+        controller.taskCompleted(TimeUnit.MILLISECONDS.toNanos(2000));
+
+        assertThat(controller.getAverageExecutionMillis()).isEqualTo(1200);
+    }
+
+    private void acquire(int permits) throws InterruptedException {
+        for (int i = 0; i < permits; i++) {
+            admission.acquire();
+        }
+    }
+}
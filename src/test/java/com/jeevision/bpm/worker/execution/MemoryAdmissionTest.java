@@ -0,0 +1,52 @@
+package com.jeevision.bpm.worker.execution;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+
+import org.junit.jupiter.api.Test;
+
+class MemoryAdmissionTest {
+
+    private final MemoryMXBean memory = mock(MemoryMXBean.class);
+    private final MemoryAdmission admission = new MemoryAdmission(1000, 0.8, memory);
+
+    @Test
+    void testTryAcquire_CapsBytesInFlight() {
+        heapUsed(100);
+
+        assertThat(admission.tryAcquire(600)).isTrue();
+        assertThat(admission.tryAcquire(300)).isTrue();
+        assertThat(admission.tryAcquire(200)).isFalse();
+        assertThat(admission.getBytesInFlight()).isEqualTo(900);
+
+        admission.release(600);
+        assertThat(admission.tryAcquire(200)).isTrue();
+    }
+
+    @Test
+    void testTryAcquire_AdmitsOversizedTaskWhenNothingElseRuns() {
+        assertThat(admission.tryAcquire(5000)).isTrue();
+        assertThat(admission.isUnderPressure()).isTrue();
+
+        admission.release(5000);
+        assertThat(admission.isUnderPressure()).isFalse();
+    }
+
+    @Test
+    void testTryAcquire_RejectsWhileHeapIsNearlyFull() {
+        heapUsed(900);
+
+        assertThat(admission.tryAcquire(10)).isTrue();
+        assertThat(admission.tryAcquire(10)).isFalse();
+        assertThat(admission.isUnderPressure()).isTrue();
+        assertThat(admission.getHeapUsage()).isEqualTo(0.9);
+    }
+
+    private void heapUsed(long used) {
+        when(memory.getHeapMemoryUsage()).thenReturn(new MemoryUsage(0, used, 1000, 1000));
+    }
+}
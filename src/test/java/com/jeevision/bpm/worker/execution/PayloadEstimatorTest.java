@@ -0,0 +1,53 @@
+package com.jeevision.bpm.worker.execution;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import org.cibseven.bpm.client.task.ExternalTask;
+import org.cibseven.bpm.engine.variable.Variables;
+import org.junit.jupiter.api.Test;
+
+class PayloadEstimatorTest {
+
+    @Test
+    void testEstimate_GrowsWithVariableSize() {
+        var small = taskWith(Variables.createVariables().putValue("text", "x".repeat(10)));
+        var large = taskWith(Variables.createVariables().putValue("text", "x".repeat(10_000)));
+
+        assertThat(PayloadEstimator.estimate(large) - PayloadEstimator.estimate(small)).isEqualTo(2 * 9_990);
+    }
+
+    @Test
+    void testEstimate_MeasuresSerializedObjectsWithoutDeserializing() {
+        var json = "{\"items\":[" + "1,".repeat(1000) + "1]}";
+        var task = taskWith(Variables.createVariables().putValueTyped("order",
+                Variables.serializedObjectValue(json).serializationDataFormat("application/json").create()));
+
+        assertThat(PayloadEstimator.estimate(task)).isGreaterThan(2L * json.length());
+    }
+
+    @Test
+    void testEstimate_WalksCollectionsAndMaps() {
+        var task = taskWith(Variables.createVariables()
+                .putValue("bytes", new byte[4096])
+                .putValue("nested", Map.of("list", List.of("a".repeat(1000), "b".repeat(1000)))));
+
+        assertThat(PayloadEstimator.estimate(task)).isGreaterThan(4096 + 2 * 2000);
+    }
+
+    @Test
+    void testEstimate_WithoutVariables() {
+        assertThat(PayloadEstimator.estimate(mock(ExternalTask.class))).isZero();
+        assertThat(PayloadEstimator.estimate(taskWith(Variables.createVariables()))).isZero();
+    }
+
+    private static ExternalTask taskWith(org.cibseven.bpm.engine.variable.VariableMap variables) {
+        var externalTask = mock(ExternalTask.class);
+        when(externalTask.getAllVariablesTyped(false)).thenReturn(variables);
+        return externalTask;
+    }
+}
@@ -0,0 +1,141 @@
+package com.jeevision.bpm.worker.execution;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.cibseven.bpm.client.task.ExternalTask;
+import org.cibseven.bpm.client.task.ExternalTaskHandler;
+import org.cibseven.bpm.client.task.ExternalTaskService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class TaskDispatcherTest {
+
+    @Mock
+    private ExternalTaskHandler delegate;
+
+    @Mock
+    private ExternalTask externalTask;
+
+    @Mock
+    private ExternalTaskService externalTaskService;
+
+    @Test
+    void testExecute_RunsDelegateOnExecutorAndReleasesAdmission() {
+        List<Runnable> submitted = new ArrayList<>();
+        var admission = new TaskAdmission(2);
+        var dispatcher = new TaskDispatcher(delegate, submitted::add, admission);
+
+        dispatcher.execute(externalTask, externalTaskService);
+
+        // The fetch thread only hands the task over
+        verify(delegate, never()).execute(any(), any());
+        assertThat(admission.inFlight()).isEqualTo(1);
+
+        submitted.get(0).run();
+
+        verify(delegate).execute(externalTask, externalTaskService);
+        assertThat(admission.inFlight()).isZero();
+    }
+
+    @Test
+    void testExecute_ReleasesAdmissionWhenDelegateFails() {
+        var admission = new TaskAdmission(1);
+        var dispatcher = new TaskDispatcher(delegate, Runnable::run, admission);
+        doAnswer(invocation -> { throw new IllegalStateException("boom"); })
+                .when(delegate).execute(externalTask, externalTaskService);
+
+        try {
+            dispatcher.execute(externalTask, externalTaskService);
+        } catch (IllegalStateException expected) {
+            // propagated from the caller-runs executor
+        }
+
+        assertThat(admission.available()).isEqualTo(1);
+    }
+
+    @Test
+    void testExecute_KeepsAsyncTaskAdmittedUntilItSettles() {
+        var pending = new CompletableFuture<Void>();
+        AsyncTaskHandler asyncHandler = (task, service) -> pending;
+        var admission = new TaskAdmission(1);
+        var dispatcher = new TaskDispatcher(asyncHandler, Runnable::run, admission);
+
+        dispatcher.execute(externalTask, externalTaskService);
+
+        // The thread returned, the task is still in flight
+        assertThat(admission.inFlight()).isEqualTo(1);
+
+        pending.complete(null);
+
+        assertThat(admission.inFlight()).isZero();
+    }
+
+    @Test
+    void testExecute_HandsAdmittedPayloadEstimateToAsyncHandler() {
+        List<Long> payloadSizes = new ArrayList<>();
+        var asyncHandler = new AsyncTaskHandler() {
+            @Override
+            public CompletableFuture<Void> executeAsync(ExternalTask task, ExternalTaskService service) {
+                throw new AssertionError("The admitted estimate should be handed over");
+            }
+
+            @Override
+            public CompletableFuture<Void> executeAsync(ExternalTask task, ExternalTaskService service, long payloadSize) {
+                payloadSizes.add(payloadSize);
+                return CompletableFuture.completedFuture(null);
+            }
+        };
+        var memoryAdmission = new MemoryAdmission(1024, 1.0);
+        var dispatcher = new TaskDispatcher(asyncHandler, Runnable::run, new TaskAdmission(1), null, memoryAdmission);
+
+        dispatcher.execute(externalTask, externalTaskService);
+
+        // Mocked tasks have no variables
+        assertThat(payloadSizes).containsExactly(0L);
+    }
+
+    @Test
+    void testExecute_UnlocksTaskWhenExecutorRejects() {
+        var admission = new TaskAdmission(1);
+        var dispatcher = new TaskDispatcher(delegate, command -> { throw new RejectedExecutionException(); }, admission);
+
+        dispatcher.execute(externalTask, externalTaskService);
+
+        verify(externalTaskService).unlock(externalTask);
+        verify(delegate, never()).execute(any(), any());
+        assertThat(admission.available()).isEqualTo(1);
+    }
+
+    @Test
+    void testExecute_ReturnsTaskBeyondFetchBudget() {
+        var admission = new TaskAdmission(2);
+        var fetchController = new FetchController(admission, 1, 1000, 100, 5000);
+        List<Runnable> submitted = new ArrayList<>();
+        var dispatcher = new TaskDispatcher(delegate, submitted::add, admission, fetchController, null);
+
+        dispatcher.execute(externalTask, externalTaskService);
+        assertThat(fetchController.getQueued()).isEqualTo(1);
+
+        dispatcher.execute(externalTask, externalTaskService);
+        verify(externalTaskService).unlock(externalTask);
+        assertThat(submitted).hasSize(1);
+
+        submitted.get(0).run();
+
+        verify(delegate).execute(externalTask, externalTaskService);
+        assertThat(fetchController.getQueued()).isZero();
+        assertThat(admission.inFlight()).isZero();
+    }
+}
@@ -0,0 +1,234 @@
+package com.jeevision.bpm.worker.execution;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.cibseven.bpm.client.task.ExternalTask;
+import org.junit.jupiter.api.Test;
+
+class TopicBulkheadTest {
+
+    @Test
+    void testExecute_LimitsConcurrencyAndQueuesTheRest() throws Exception {
+        var release = new CountDownLatch(1);
+        var started = new CountDownLatch(2);
+        var finished = new CountDownLatch(4);
+        var maxRunning = new AtomicInteger();
+        var running = new AtomicInteger();
+
+        try (var bulkhead = TopicBulkhead.virtualThreads("test-topic", 2, 2)) {
+            for (int i = 0; i < 4; i++) {
+                bulkhead.execute(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                    finished.countDown();
+                });
+            }
+
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(bulkhead.getRunning()).isEqualTo(2);
+            assertThat(bulkhead.getQueued()).isEqualTo(2);
+
+            release.countDown();
+
+            assertThat(finished.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(maxRunning.get()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void testExecute_RejectsWhenQueueIsFull() throws Exception {
+        var release = new CountDownLatch(1);
+        var started = new CountDownLatch(1);
+
+        try (var bulkhead = TopicBulkhead.platformThreads("cpu-topic", 1, 1)) {
+            bulkhead.execute(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            bulkhead.execute(() -> {});
+
+            assertThatThrownBy(() -> bulkhead.execute(() -> {}))
+                    .isInstanceOf(RejectedExecutionException.class)
+                    .hasMessageContaining("cpu-topic");
+
+            release.countDown();
+        }
+    }
+
+    @Test
+    void testExecute_PrioritizedStartsByPriorityThenLockExpiry() throws Exception {
+        var release = new CountDownLatch(1);
+        var started = new CountDownLatch(1);
+        var order = new CopyOnWriteArrayList<String>();
+        var finished = new CountDownLatch(4);
+        long now = System.currentTimeMillis();
+
+        try (var bulkhead = TopicBulkhead.platformThreads("prio-topic", 1, 3, 0)) {
+            bulkhead.execute(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                finished.countDown();
+            });
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            bulkhead.execute(buffered("low", 10, now + 60000, order, finished));
+            bulkhead.execute(buffered("high-late", 50, now + 60000, order, finished));
+            bulkhead.execute(buffered("high-early", 50, now + 30000, order, finished));
+            assertThatThrownBy(() -> bulkhead.execute(() -> {})).isInstanceOf(RejectedExecutionException.class);
+
+            release.countDown();
+
+            assertThat(finished.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(order).containsExactly("high-early", "high-late", "low");
+        }
+    }
+
+    @Test
+    void testHandBackExpiring_ReturnsTasksBeforeTheirLockRunsOut() throws Exception {
+        var release = new CountDownLatch(1);
+        var started = new CountDownLatch(1);
+        var handedBack = new CopyOnWriteArrayList<String>();
+        long now = System.currentTimeMillis();
+
+        try (var bulkhead = TopicBulkhead.virtualThreads("expiring-topic", 1, 2, 5000)) {
+            bulkhead.execute(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            bulkhead.execute(BufferedTask.of(task("expiring", 0, now + 1000), () -> {}, () -> handedBack.add("expiring")));
+            bulkhead.execute(BufferedTask.of(task("fresh", 0, now + 60000), () -> {}, () -> handedBack.add("fresh")));
+
+            assertThat(bulkhead.handBackExpiring()).isEqualTo(1);
+            assertThat(handedBack).containsExactly("expiring");
+            assertThat(bulkhead.getQueued()).isEqualTo(1);
+
+            release.countDown();
+        }
+    }
+
+    @Test
+    void testClose_HandsBackQueuedTasks() throws Exception {
+        var release = new CountDownLatch(1);
+        var started = new CountDownLatch(1);
+        var handedBack = new CopyOnWriteArrayList<String>();
+        long now = System.currentTimeMillis();
+
+        var bulkhead = TopicBulkhead.virtualThreads("closing-topic", 1, 2);
+        bulkhead.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        bulkhead.execute(BufferedTask.of(task("queued-1", 0, now + 60000), () -> {}, () -> handedBack.add("queued-1")));
+        bulkhead.execute(BufferedTask.of(task("queued-2", 0, now + 60000), () -> {}, () -> handedBack.add("queued-2")));
+
+        bulkhead.close();
+
+        assertThat(handedBack).containsExactlyInAnyOrder("queued-1", "queued-2");
+        assertThat(bulkhead.getQueued()).isZero();
+    }
+
+    @Test
+    void testClose_HandsBackQueuedReturnableCommands() throws Exception {
+        var release = new CountDownLatch(1);
+        var started = new CountDownLatch(1);
+        var handedBack = new AtomicInteger();
+        var ran = new AtomicInteger();
+
+        var bulkhead = TopicBulkhead.virtualThreads("closing-batch-topic", 1, 1);
+        bulkhead.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        bulkhead.execute(TopicBulkhead.returnable(ran::incrementAndGet, handedBack::incrementAndGet));
+
+        bulkhead.close();
+
+        assertThat(handedBack).hasValue(1);
+        assertThat(ran).hasValue(0);
+    }
+
+    @Test
+    void testShutdown_HandsBackTasksThatCanNoLongerStart() throws Exception {
+        var release = new CountDownLatch(1);
+        var started = new CountDownLatch(1);
+        var handedBack = new CountDownLatch(1);
+        long now = System.currentTimeMillis();
+
+        try (var bulkhead = TopicBulkhead.virtualThreads("stopping-topic", 1, 1)) {
+            bulkhead.execute(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            bulkhead.execute(BufferedTask.of(task("queued", 0, now + 60000), () -> {}, handedBack::countDown));
+
+            bulkhead.shutdown();
+            release.countDown();
+
+            assertThat(handedBack.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+
+    private static BufferedTask buffered(String id, long priority, long lockExpiresAt, List<String> order, 
+            CountDownLatch finished) {
+        return BufferedTask.of(task(id, priority, lockExpiresAt), () -> {
+            order.add(id);
+            finished.countDown();
+        }, () -> {});
+    }
+
+    private static ExternalTask task(String id, long priority, long lockExpiresAt) {
+        var externalTask = mock(ExternalTask.class);
+        when(externalTask.getId()).thenReturn(id);
+        when(externalTask.getPriority()).thenReturn(priority);
+        when(externalTask.getLockExpirationTime()).thenReturn(new Date(lockExpiresAt));
+        return externalTask;
+    }
+}
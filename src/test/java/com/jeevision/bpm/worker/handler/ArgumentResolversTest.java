@@ -0,0 +1,132 @@
+package com.jeevision.bpm.worker.handler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import org.cibseven.bpm.client.task.ExternalTask;
+import org.cibseven.bpm.engine.variable.value.ObjectValue;
+import org.cibseven.bpm.engine.variable.value.TypedValue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jeevision.bpm.worker.model.WorkerMethod;
+
+@ExtendWith(MockitoExtension.class)
+class ArgumentResolversTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private ExternalTask externalTask;
+
+    @Test
+    void testCompile_InjectsExternalTask() {
+        var resolver = ArgumentResolvers.compile(parameter("task", ExternalTask.class, false, ""), objectMapper);
+
+        assertThat(resolver.resolve(externalTask)).isSameAs(externalTask);
+    }
+
+    @Test
+    void testCompile_PreConvertsDefaultValue() {
+        when(externalTask.getVariable("count")).thenReturn(null);
+        var resolver = ArgumentResolvers.compile(parameter("count", Integer.class, false, "5"), objectMapper);
+
+        assertThat(resolver.resolve(externalTask)).isEqualTo(5);
+    }
+
+    @Test
+    void testCompile_ConvertsToPrimitiveTarget() {
+        when(externalTask.getVariable("amount")).thenReturn("12.5");
+        var resolver = ArgumentResolvers.compile(parameter("amount", double.class, false, ""), objectMapper);
+
+        assertThat(resolver.resolve(externalTask)).isEqualTo(12.5);
+    }
+
+    @Test
+    void testCompile_PassesAssignableValueThrough() {
+        var value = new StringBuilder("as-is");
+        when(externalTask.getVariable("text")).thenReturn(value);
+        var resolver = ArgumentResolvers.compile(parameter("text", CharSequence.class, false, ""), objectMapper);
+
+        assertThat(resolver.resolve(externalTask)).isSameAs(value);
+    }
+
+    @Test
+    void testCompile_RequiredVariableMissing() {
+        when(externalTask.getVariable("orderId")).thenReturn(null);
+        var resolver = ArgumentResolvers.compile(parameter("orderId", String.class, true, ""), objectMapper);
+
+        assertThatThrownBy(() -> resolver.resolve(externalTask))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("orderId");
+    }
+
+    @Test
+    void testCompile_ConvertsGenericListElements() {
+        TypedValue typedValue = mock(TypedValue.class);
+        when(typedValue.getValue()).thenReturn(List.of(Map.of("sku", "A-1", "quantity", 2)));
+        doReturn(typedValue).when(externalTask).getVariableTyped("items", false);
+        var resolver = ArgumentResolvers.compile(itemsParameter(), objectMapper);
+
+        assertThat(resolver.resolve(externalTask)).isEqualTo(List.of(new Item("A-1", 2)));
+    }
+
+    @Test
+    void testCompile_ReadsSerializedJsonObjectValueDirectly() {
+        ObjectValue objectValue = mock(ObjectValue.class);
+        when(objectValue.isDeserialized()).thenReturn(false);
+        when(objectValue.getSerializationDataFormat()).thenReturn("application/json");
+        when(objectValue.getValueSerialized()).thenReturn("[{\"sku\":\"B-2\",\"quantity\":3}]");
+        doReturn(objectValue).when(externalTask).getVariableTyped("items", false);
+        var resolver = ArgumentResolvers.compile(itemsParameter(), objectMapper);
+
+        assertThat(resolver.resolve(externalTask)).isEqualTo(List.of(new Item("B-2", 3)));
+    }
+
+    @Test
+    void testCompile_PassesUntypedMapThrough() {
+        Map<String, Object> payload = Map.of("customer", Map.of("name", "ACME"), "total", 42);
+        TypedValue typedValue = mock(TypedValue.class);
+        when(typedValue.getValue()).thenReturn(payload);
+        doReturn(typedValue).when(externalTask).getVariableTyped("payload", false);
+        var resolver = ArgumentResolvers.compile(WorkerMethod.ParameterInfo.builder()
+                .variableName("payload")
+                .type(Map.class)
+                .javaType(objectMapper.getTypeFactory().constructMapType(Map.class, String.class, Object.class))
+                .required(false)
+                .defaultValue("")
+                .build(), objectMapper);
+
+        assertThat(resolver.resolve(externalTask)).isSameAs(payload);
+    }
+
+    private WorkerMethod.ParameterInfo itemsParameter() {
+        return WorkerMethod.ParameterInfo.builder()
+                .variableName("items")
+                .type(List.class)
+                .javaType(objectMapper.getTypeFactory().constructCollectionType(List.class, Item.class))
+                .required(false)
+                .defaultValue("")
+                .build();
+    }
+
+    record Item(String sku, int quantity) {}
+
+    private static WorkerMethod.ParameterInfo parameter(String name, Class<?> type, boolean required, String defaultValue) {
+        return WorkerMethod.ParameterInfo.builder()
+                .variableName(name)
+                .type(type)
+                .required(required)
+                .defaultValue(defaultValue)
+                .build();
+    }
+}
@@ -0,0 +1,235 @@
+package com.jeevision.bpm.worker.handler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.cibseven.bpm.client.task.ExternalTask;
+import org.cibseven.bpm.client.task.ExternalTaskService;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jeevision.bpm.worker.annotation.BpmResult;
+import com.jeevision.bpm.worker.config.BpmWorkerProperties;
+import com.jeevision.bpm.worker.execution.TaskAdmission;
+import com.jeevision.bpm.worker.execution.TopicBulkhead;
+import com.jeevision.bpm.worker.model.ArgumentResolver;
+import com.jeevision.bpm.worker.model.WorkerMethod;
+
+class BatchTaskHandlerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExternalTaskService externalTaskService = mock(ExternalTaskService.class);
+    private final OrderBatchWorker worker = new OrderBatchWorker();
+
+    @Test
+    void testFlush_PassesTheWholeFetchAndReportsEachTask() {
+        var handler = handler("store", Runnable::run);
+        var first = task("t1", Map.of("orderId", "A", "amount", 10.0));
+        var second = task("t2", Map.of("orderId", "B", "amount", -1.0));
+
+        handler.execute(first, externalTaskService);
+        handler.execute(second, externalTaskService);
+        assertThat(worker.batches).isEmpty();
+
+        handler.flush();
+
+        assertThat(worker.batches).containsExactly(List.of(new OrderRow("A", 10.0), new OrderRow("B", -1.0)));
+        verify(externalTaskService).complete(first, Map.of("stored", true));
+        verify(externalTaskService).handleFailure(eq(second), eq("negative amount"), anyString(), anyInt(), anyLong());
+    }
+
+    @Test
+    void testFlush_FailsOnlyTasksWhoseVariablesCannotBeBound() {
+        var handler = handler("store", Runnable::run);
+        var valid = task("t1", Map.of("orderId", "A", "amount", 10.0));
+        var invalid = task("t2", Map.of("orderId", "B", "amount", "not a number"));
+
+        handler.execute(valid, externalTaskService);
+        handler.execute(invalid, externalTaskService);
+        handler.flush();
+
+        assertThat(worker.batches).containsExactly(List.of(new OrderRow("A", 10.0)));
+        verify(externalTaskService).complete(valid, Map.of("stored", true));
+        verify(externalTaskService).handleFailure(eq(invalid), anyString(), anyString(), anyInt(), anyLong());
+    }
+
+    @Test
+    void testFlush_FailsEveryTaskWhenTheMethodThrows() {
+        var handler = handler("reject", Runnable::run);
+        var first = task("t1", Map.of("orderId", "A", "amount", 10.0));
+        var second = task("t2", Map.of("orderId", "B", "amount", 20.0));
+
+        handler.execute(first, externalTaskService);
+        handler.execute(second, externalTaskService);
+        handler.flush();
+
+        verify(externalTaskService).handleFailure(eq(first), eq("database down"), anyString(), anyInt(), anyLong());
+        verify(externalTaskService).handleFailure(eq(second), eq("database down"), anyString(), anyInt(), anyLong());
+        verify(externalTaskService, never()).complete(any(), any());
+    }
+
+    @Test
+    void testFlush_FailsEveryTaskWhenResultsDoNotMatch() {
+        var handler = handler("storeOne", Runnable::run);
+        var first = task("t1", Map.of("orderId", "A", "amount", 10.0));
+        var second = task("t2", Map.of("orderId", "B", "amount", 20.0));
+
+        handler.execute(first, externalTaskService);
+        handler.execute(second, externalTaskService);
+        handler.flush();
+
+        verify(externalTaskService).handleFailure(eq(first), anyString(), anyString(), anyInt(), anyLong());
+        verify(externalTaskService).handleFailure(eq(second), anyString(), anyString(), anyInt(), anyLong());
+    }
+
+    @Test
+    void testFlush_UnlocksBatchWhenExecutorRejects() {
+        var handler = handler("store", command -> { throw new RejectedExecutionException(); });
+        var first = task("t1", Map.of("orderId", "A", "amount", 10.0));
+
+        handler.execute(first, externalTaskService);
+        handler.flush();
+        handler.flush();
+
+        verify(externalTaskService).unlock(first);
+        assertThat(worker.batches).isEmpty();
+    }
+
+    @Test
+    void testFlush_HoldsAdmissionUntilEachTaskIsReported() {
+        var admission = new TaskAdmission(2);
+        var handler = handler("store", Runnable::run).withAdmission(admission, null);
+
+        handler.execute(task("t1", Map.of("orderId", "A", "amount", 10.0)), externalTaskService);
+        handler.execute(task("t2", Map.of("orderId", "B", "amount", 20.0)), externalTaskService);
+        assertThat(admission.inFlight()).isEqualTo(2);
+
+        handler.flush();
+
+        assertThat(admission.inFlight()).isZero();
+    }
+
+    @Test
+    void testExecute_RunsCollectedTasksBeforeWaitingForAdmission() {
+        var admission = new TaskAdmission(1);
+        var handler = handler("store", Runnable::run).withAdmission(admission, null);
+
+        handler.execute(task("t1", Map.of("orderId", "A", "amount", 10.0)), externalTaskService);
+        handler.execute(task("t2", Map.of("orderId", "B", "amount", 20.0)), externalTaskService);
+
+        // The first task ran to free the only permit, the second holds it now
+        assertThat(worker.batches).containsExactly(List.of(new OrderRow("A", 10.0)));
+        assertThat(admission.inFlight()).isEqualTo(1);
+    }
+
+    @Test
+    void testFlush_ReleasesAdmissionOfRejectedBatch() {
+        var admission = new TaskAdmission(1);
+        var handler = handler("store", command -> { throw new RejectedExecutionException(); }).withAdmission(admission, null);
+        var first = task("t1", Map.of("orderId", "A", "amount", 10.0));
+
+        handler.execute(first, externalTaskService);
+        handler.flush();
+
+        verify(externalTaskService).unlock(first);
+        assertThat(admission.inFlight()).isZero();
+    }
+
+    @Test
+    void testFlush_HandsBackBatchDroppedByClosingBulkhead() throws Exception {
+        var admission = new TaskAdmission(2);
+        var release = new CountDownLatch(1);
+        var started = new CountDownLatch(1);
+        var bulkhead = TopicBulkhead.virtualThreads("store-orders", 1, 1);
+        bulkhead.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        var handler = handler("store", bulkhead).withAdmission(admission, null);
+        var first = task("t1", Map.of("orderId", "A", "amount", 10.0));
+        var second = task("t2", Map.of("orderId", "B", "amount", 20.0));
+
+        handler.execute(first, externalTaskService);
+        handler.execute(second, externalTaskService);
+        handler.flush();
+        bulkhead.close();
+
+        verify(externalTaskService).unlock(first);
+        verify(externalTaskService).unlock(second);
+        assertThat(admission.inFlight()).isZero();
+        assertThat(worker.batches).isEmpty();
+    }
+
+    private BatchTaskHandler handler(String methodName, Executor executor) {
+        try {
+            var method = OrderBatchWorker.class.getMethod(methodName, List.class);
+            var workerMethod = WorkerMethod.builder()
+                    .bean(worker)
+                    .method(method)
+                    .topic("store-orders")
+                    .resultAnnotation(method.getAnnotation(BpmResult.class))
+                    .parameters(List.of())
+                    .argumentResolvers(new ArgumentResolver[0])
+                    .throwsExceptionMappings(Map.of())
+                    .batch(true)
+                    .batchElementType(objectMapper.constructType(OrderRow.class))
+                    .build();
+            var reporter = new BpmTaskHandler(objectMapper, new BpmWorkerProperties()).withWorkerMethod(workerMethod);
+            return new BatchTaskHandler(reporter, workerMethod, objectMapper, executor);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ExternalTask task(String id, Map<String, Object> variables) {
+        var externalTask = mock(ExternalTask.class);
+        when(externalTask.getId()).thenReturn(id);
+        when(externalTask.getAllVariables()).thenReturn(variables);
+        return externalTask;
+    }
+
+    record OrderRow(String orderId, Double amount) {
+    }
+
+    public static class OrderBatchWorker {
+        final List<List<OrderRow>> batches = new ArrayList<>();
+
+        @BpmResult("stored")
+        public List<Object> store(List<OrderRow> rows) {
+            batches.add(List.copyOf(rows));
+            return rows.stream()
+                    .map(row -> row.amount() < 0 ? (Object) new IllegalArgumentException("negative amount") : true)
+                    .toList();
+        }
+
+        @BpmResult("stored")
+        public List<Object> storeOne(List<OrderRow> rows) {
+            return List.of(true);
+        }
+
+        public void reject(List<OrderRow> rows) {
+            throw new IllegalStateException("database down");
+        }
+    }
+}
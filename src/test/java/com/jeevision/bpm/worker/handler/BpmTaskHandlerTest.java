@@ -1,22 +1,32 @@
 package com.jeevision.bpm.worker.handler;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.longThat;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
+import org.cibseven.bpm.client.exception.ConnectionLostException;
 import org.cibseven.bpm.client.task.ExternalTask;
 import org.cibseven.bpm.client.task.ExternalTaskService;
 import org.junit.jupiter.api.BeforeEach;
@@ -30,8 +40,18 @@ import com.jeevision.bpm.worker.annotation.BpmError;
 import com.jeevision.bpm.worker.annotation.BpmResult;
 import com.jeevision.bpm.worker.annotation.BpmVariable;
 import com.jeevision.bpm.worker.config.BpmWorkerProperties;
+import com.jeevision.bpm.worker.execution.CompletionPipeline;
+import com.jeevision.bpm.worker.lock.AdaptiveLockDuration;
+import com.jeevision.bpm.worker.metrics.TopicMetrics;
+import com.jeevision.bpm.worker.metrics.TopicMetrics.EngineCall;
+import com.jeevision.bpm.worker.metrics.TopicMetrics.Outcome;
 import com.jeevision.bpm.worker.model.WorkerMethod;
 
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import reactor.core.publisher.Mono;
+
 @ExtendWith(MockitoExtension.class)
 class BpmTaskHandlerTest {
 
@@ -189,6 +209,88 @@ class BpmTaskHandlerTest {
         verify(externalTaskService, never()).handleBpmnError(any(ExternalTask.class), any(), any());
     }
 
+    @Test
+    void testExecute_RecordsTopicMetrics() throws Exception {
+        when(externalTask.getId()).thenReturn("task-123");
+        when(externalTask.getTopicName()).thenReturn("test-topic");
+        when(externalTask.getVariable("input")).thenReturn("runtime-error");
+
+        Object mockBean = new TestWorkerWithRuntimeError();
+        Method mockMethod = TestWorkerWithRuntimeError.class.getMethod("processTaskWithRuntimeError", String.class);
+
+        WorkerMethod.ParameterInfo paramInfo = WorkerMethod.ParameterInfo.builder()
+                .parameter(mockMethod.getParameters()[0])
+                .variableName("input").type(String.class).required(false).defaultValue("").build();
+
+        when(workerMethod.getBean()).thenReturn(mockBean);
+        when(workerMethod.getMethod()).thenReturn(mockMethod);
+        when(workerMethod.getParameters()).thenReturn(List.of(paramInfo));
+        when(workerMethod.getTopic()).thenReturn("test-topic");
+
+        TopicMetrics topicMetrics = mock(TopicMetrics.class);
+        taskHandler = taskHandler.withWorkerMethod(workerMethod).withMetrics(topic -> topicMetrics);
+
+        taskHandler.execute(externalTask, externalTaskService);
+
+        verify(topicMetrics).taskStarted();
+        verify(topicMetrics).conversion(anyLong());
+        verify(topicMetrics).invocation(anyLong(), eq(Outcome.FAILURE));
+        verify(topicMetrics).engineCall(eq(EngineCall.HANDLE_FAILURE), anyLong());
+        verify(topicMetrics).taskFinished(Outcome.FAILURE);
+        verify(topicMetrics, never()).queueDelay(anyLong());
+    }
+
+    @Test
+    void testExecute_ObservesTaskPhases() throws Exception {
+        when(externalTask.getId()).thenReturn("task-123");
+        when(externalTask.getTopicName()).thenReturn("test-topic");
+        when(externalTask.getVariable("input")).thenReturn("test-value");
+        when(externalTask.getProcessDefinitionKey()).thenReturn("order-process");
+        when(externalTask.getBusinessKey()).thenReturn("ORD-42");
+
+        Object mockBean = new TestWorker();
+        Method mockMethod = TestWorker.class.getMethod("processTask", String.class);
+
+        WorkerMethod.ParameterInfo paramInfo = WorkerMethod.ParameterInfo.builder()
+                .parameter(mockMethod.getParameters()[0])
+                .variableName("input").type(String.class).required(false).defaultValue("").build();
+
+        when(workerMethod.getBean()).thenReturn(mockBean);
+        when(workerMethod.getMethod()).thenReturn(mockMethod);
+        when(workerMethod.getParameters()).thenReturn(List.of(paramInfo));
+
+        List<Observation.Context> stopped = new ArrayList<>();
+        ObservationRegistry observationRegistry = ObservationRegistry.create();
+        observationRegistry.observationConfig().observationHandler(new ObservationHandler<>() {
+            @Override
+            public void onStop(Observation.Context context) {
+                stopped.add(context);
+            }
+
+            @Override
+            public boolean supportsContext(Observation.Context context) {
+                return true;
+            }
+        });
+
+        taskHandler.withWorkerMethod(workerMethod)
+                .withObservationRegistry(observationRegistry)
+                .execute(externalTask, externalTaskService);
+
+        verify(externalTaskService).complete(eq(externalTask), any());
+        assertThat(stopped).extracting(Observation.Context::getName).containsExactly(
+                TaskObservations.ARGUMENTS, TaskObservations.METHOD, TaskObservations.ENGINE_REQUEST, TaskObservations.TASK);
+
+        var task = stopped.get(3);
+        assertThat(task).isInstanceOf(TaskObservations.TaskContext.class);
+        assertThat(task.getLowCardinalityKeyValue("topic").getValue()).isEqualTo("test-topic");
+        assertThat(task.getLowCardinalityKeyValue("outcome").getValue()).isEqualTo("completed");
+        assertThat(task.getHighCardinalityKeyValue("process.definition.key").getValue()).isEqualTo("order-process");
+        assertThat(task.getHighCardinalityKeyValue("business.key").getValue()).isEqualTo("ORD-42");
+        assertThat(stopped.subList(0, 3)).allSatisfy(child ->
+                assertThat(child.getParentObservation().getContextView()).isSameAs(task));
+    }
+
     @Test
     void testExecute_WithExternalTaskParameter() throws Exception {
         // Arrange
@@ -440,6 +542,218 @@ class BpmTaskHandlerTest {
         verify(externalTaskService).handleBpmnError(eq(externalTask), eq("BIZ_001"), eq("business rule violated"));
     }
 
+    @Test
+    void testExecuteAsync_CompletesTaskWhenFutureSettles() throws Exception {
+        when(externalTask.getId()).thenReturn("task-async");
+        when(externalTask.getTopicName()).thenReturn("topic");
+
+        var worker = new TestAsyncWorker();
+        BpmResult resultAnnotation = mock(BpmResult.class);
+        when(resultAnnotation.value()).thenReturn("output");
+        when(resultAnnotation.flatten()).thenReturn(false);
+        when(workerMethod.getBean()).thenReturn(worker);
+        when(workerMethod.getMethod()).thenReturn(TestAsyncWorker.class.getMethod("process"));
+        when(workerMethod.getParameters()).thenReturn(List.of());
+        when(workerMethod.getResultAnnotation()).thenReturn(resultAnnotation);
+
+        var outcome = taskHandler.withWorkerMethod(workerMethod).executeAsync(externalTask, externalTaskService);
+
+        assertThat(outcome).isNotDone();
+        verify(externalTaskService, never()).complete(any(ExternalTask.class), any());
+
+        worker.result.complete("done");
+
+        assertThat(outcome.toCompletableFuture().get(5, TimeUnit.SECONDS)).isEqualTo(Outcome.COMPLETED);
+        verify(externalTaskService).complete(externalTask, Map.of("output", "done"));
+    }
+
+    @Test
+    void testExecuteAsync_ObservesEngineRequestAsChildOfTheTask() throws Exception {
+        when(externalTask.getId()).thenReturn("task-async");
+        when(externalTask.getTopicName()).thenReturn("topic");
+        when(workerMethod.getBean()).thenReturn(new TestAsyncWorker());
+        when(workerMethod.getMethod()).thenReturn(TestAsyncWorker.class.getMethod("process"));
+        when(workerMethod.getParameters()).thenReturn(List.of());
+
+        List<Observation.Context> stopped = new CopyOnWriteArrayList<>();
+        ObservationRegistry observationRegistry = ObservationRegistry.create();
+        observationRegistry.observationConfig().observationHandler(new ObservationHandler<>() {
+            @Override
+            public void onStop(Observation.Context context) {
+                stopped.add(context);
+            }
+
+            @Override
+            public boolean supportsContext(Observation.Context context) {
+                return true;
+            }
+        });
+
+        var worker = (TestAsyncWorker) workerMethod.getBean();
+        var outcome = taskHandler.withWorkerMethod(workerMethod)
+                .withObservationRegistry(observationRegistry)
+                .executeAsync(externalTask, externalTaskService);
+        worker.result.complete(null);
+
+        assertThat(outcome.toCompletableFuture().get(5, TimeUnit.SECONDS)).isEqualTo(Outcome.COMPLETED);
+        var task = stopped.stream().filter(context -> TaskObservations.TASK.equals(context.getName())).findFirst().orElseThrow();
+        var engineRequest = stopped.stream()
+                .filter(context -> TaskObservations.ENGINE_REQUEST.equals(context.getName())).findFirst().orElseThrow();
+        assertThat(engineRequest.getParentObservation().getContextView()).isSameAs(task);
+    }
+
+    @Test
+    void testExecuteAsync_FailedFutureReportedAsBpmnError() throws Exception {
+        when(externalTask.getId()).thenReturn("task-async");
+
+        var worker = new TestAsyncWorker();
+        WorkerMethod.ThrowsExceptionInfo throwsInfo = WorkerMethod.ThrowsExceptionInfo.builder()
+                .exceptionType(IllegalStateException.class)
+                .errorCode("ASYNC_ERR")
+                .build();
+        when(workerMethod.getBean()).thenReturn(worker);
+        when(workerMethod.getMethod()).thenReturn(TestAsyncWorker.class.getMethod("process"));
+        when(workerMethod.getParameters()).thenReturn(List.of());
+        when(workerMethod.getThrowsExceptionMappings()).thenReturn(Map.of(IllegalStateException.class, throwsInfo));
+
+        var outcome = taskHandler.withWorkerMethod(workerMethod).executeAsync(externalTask, externalTaskService);
+        worker.result.completeExceptionally(new IllegalStateException("rejected downstream"));
+
+        assertThat(outcome.toCompletableFuture().get(5, TimeUnit.SECONDS)).isEqualTo(Outcome.BPMN_ERROR);
+        verify(externalTaskService).handleBpmnError(externalTask, "ASYNC_ERR", "rejected downstream");
+    }
+
+    @Test
+    void testExecuteAsync_MonoResult() throws Exception {
+        when(externalTask.getId()).thenReturn("task-mono");
+        when(externalTask.getTopicName()).thenReturn("topic");
+
+        BpmResult resultAnnotation = mock(BpmResult.class);
+        when(resultAnnotation.value()).thenReturn("output");
+        when(resultAnnotation.flatten()).thenReturn(false);
+        when(workerMethod.getBean()).thenReturn(new TestMonoWorker());
+        when(workerMethod.getMethod()).thenReturn(TestMonoWorker.class.getMethod("process"));
+        when(workerMethod.getParameters()).thenReturn(List.of());
+        when(workerMethod.getResultAnnotation()).thenReturn(resultAnnotation);
+
+        var outcome = taskHandler.withWorkerMethod(workerMethod).executeAsync(externalTask, externalTaskService);
+
+        assertThat(outcome.toCompletableFuture().get(5, TimeUnit.SECONDS)).isEqualTo(Outcome.COMPLETED);
+        verify(externalTaskService).complete(externalTask, Map.of("output", "mono"));
+    }
+
+    @Test
+    void testExecuteAsync_CompletionPipelineRetriesTransientEngineErrors() throws Exception {
+        when(externalTask.getId()).thenReturn("task-pipeline");
+        when(externalTask.getTopicName()).thenReturn("topic");
+        when(workerMethod.getBean()).thenReturn(new TestNoArgWorker());
+        when(workerMethod.getMethod()).thenReturn(TestNoArgWorker.class.getMethod("process"));
+        when(workerMethod.getParameters()).thenReturn(List.of());
+        doThrow(mock(ConnectionLostException.class)).doNothing()
+                .when(externalTaskService).complete(any(ExternalTask.class), any());
+
+        try (var pipeline = new CompletionPipeline(1, 10, 3, 1)) {
+            var outcome = taskHandler.withWorkerMethod(workerMethod).withCompletionPipeline(pipeline)
+                    .executeAsync(externalTask, externalTaskService);
+
+            assertThat(outcome.toCompletableFuture().get(5, TimeUnit.SECONDS)).isEqualTo(Outcome.COMPLETED);
+        }
+        verify(externalTaskService, times(2)).complete(externalTask, Map.of());
+    }
+
+    @Test
+    void testExecute_RedeliveredTaskReportsCachedResultWithoutRunningMethod() throws Exception {
+        when(externalTask.getId()).thenReturn("task-redelivered");
+        when(externalTask.getTopicName()).thenReturn("topic");
+
+        var worker = new TestCountingWorker();
+        BpmResult resultAnnotation = mock(BpmResult.class);
+        when(resultAnnotation.value()).thenReturn("output");
+        when(resultAnnotation.flatten()).thenReturn(false);
+        when(workerMethod.getBean()).thenReturn(worker);
+        when(workerMethod.getMethod()).thenReturn(TestCountingWorker.class.getMethod("process"));
+        when(workerMethod.getParameters()).thenReturn(List.of());
+        when(workerMethod.getResultAnnotation()).thenReturn(resultAnnotation);
+        taskHandler.withWorkerMethod(workerMethod).withRedeliveryCache(new RedeliveryCache(10, 60000));
+
+        taskHandler.execute(externalTask, externalTaskService);
+        taskHandler.execute(externalTask, externalTaskService);
+
+        assertThat(worker.invocations).isEqualTo(1);
+        verify(externalTaskService, times(2)).complete(externalTask, Map.of("output", "result 1"));
+    }
+
+    @Test
+    void testExecute_RejectedReportIsNotCached() throws Exception {
+        when(externalTask.getId()).thenReturn("task-rejected");
+        when(externalTask.getTopicName()).thenReturn("topic");
+
+        var worker = new TestCountingWorker();
+        BpmResult resultAnnotation = mock(BpmResult.class);
+        when(resultAnnotation.value()).thenReturn("output");
+        when(resultAnnotation.flatten()).thenReturn(false);
+        when(workerMethod.getBean()).thenReturn(worker);
+        when(workerMethod.getMethod()).thenReturn(TestCountingWorker.class.getMethod("process"));
+        when(workerMethod.getParameters()).thenReturn(List.of());
+        when(workerMethod.getResultAnnotation()).thenReturn(resultAnnotation);
+        doThrow(new IllegalStateException("invalid variables")).doNothing()
+                .when(externalTaskService).complete(any(ExternalTask.class), any());
+        taskHandler.withWorkerMethod(workerMethod).withRedeliveryCache(new RedeliveryCache(10, 60000));
+
+        taskHandler.execute(externalTask, externalTaskService);
+        taskHandler.execute(externalTask, externalTaskService);
+
+        assertThat(worker.invocations).isEqualTo(2);
+        verify(externalTaskService).complete(externalTask, Map.of("output", "result 2"));
+    }
+
+    @Test
+    void testExecute_RunsMethodWhenCachedReportFailsOnRedelivery() throws Exception {
+        when(externalTask.getId()).thenReturn("task-redelivered");
+        when(externalTask.getTopicName()).thenReturn("topic");
+
+        var worker = new TestCountingWorker();
+        BpmResult resultAnnotation = mock(BpmResult.class);
+        when(resultAnnotation.value()).thenReturn("output");
+        when(resultAnnotation.flatten()).thenReturn(false);
+        when(workerMethod.getBean()).thenReturn(worker);
+        when(workerMethod.getMethod()).thenReturn(TestCountingWorker.class.getMethod("process"));
+        when(workerMethod.getParameters()).thenReturn(List.of());
+        when(workerMethod.getResultAnnotation()).thenReturn(resultAnnotation);
+        var redeliveryCache = new RedeliveryCache(10, 60000);
+        taskHandler.withWorkerMethod(workerMethod).withRedeliveryCache(redeliveryCache);
+
+        taskHandler.execute(externalTask, externalTaskService);
+        doThrow(new IllegalStateException("task changed")).doNothing()
+                .when(externalTaskService).complete(any(ExternalTask.class), any());
+        taskHandler.execute(externalTask, externalTaskService);
+
+        assertThat(worker.invocations).isEqualTo(2);
+        verify(externalTaskService, times(2)).complete(externalTask, Map.of("output", "result 1"));
+        verify(externalTaskService).complete(externalTask, Map.of("output", "result 2"));
+        verify(externalTaskService, never()).handleFailure(any(ExternalTask.class), any(), any(), anyInt(), anyLong());
+        assertThat(redeliveryCache.get("task-redelivered").variables()).isEqualTo(Map.of("output", "result 2"));
+    }
+
+    @Test
+    void testExecute_AdaptiveLockSampleCoversQueueWait() throws Exception {
+        // Fetched with a 60 s lock 5 s ago, the method itself returns right away
+        when(externalTask.getId()).thenReturn("task-queued");
+        when(externalTask.getTopicName()).thenReturn("topic");
+        when(externalTask.getLockExpirationTime()).thenReturn(new Date(System.currentTimeMillis() + 55000));
+        when(workerMethod.getBean()).thenReturn(new TestNoArgWorker());
+        when(workerMethod.getMethod()).thenReturn(TestNoArgWorker.class.getMethod("process"));
+        when(workerMethod.getParameters()).thenReturn(List.of());
+        AdaptiveLockDuration adaptiveLockDuration = mock(AdaptiveLockDuration.class);
+        when(adaptiveLockDuration.getCurrent()).thenReturn(60000L);
+
+        taskHandler.withWorkerMethod(workerMethod).withAdaptiveLockDuration(adaptiveLockDuration)
+                .execute(externalTask, externalTaskService);
+
+        verify(externalTaskService).complete(externalTask, Map.of());
+        verify(adaptiveLockDuration).record(longThat(millis -> millis >= 5000 && millis < 60000));
+    }
+
     // Test worker classes
     public static class TestWorker {
         @BpmResult
@@ -499,6 +813,36 @@ class BpmTaskHandlerTest {
         }
     }
 
+    public static class TestCountingWorker {
+        private int invocations;
+
+        @BpmResult
+        public String process() {
+            return "result " + ++invocations;
+        }
+    }
+
+    public static class TestNoArgWorker {
+        public void process() {
+        }
+    }
+
+    public static class TestAsyncWorker {
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+
+        @BpmResult
+        public CompletableFuture<String> process() {
+            return result;
+        }
+    }
+
+    public static class TestMonoWorker {
+        @BpmResult
+        public Mono<String> process() {
+            return Mono.just("mono");
+        }
+    }
+
     public static class TestWorkerWithSpelMessage {
         public void process(@BpmVariable("input") String input) throws IllegalStateException {
             throw new IllegalStateException("state is invalid");
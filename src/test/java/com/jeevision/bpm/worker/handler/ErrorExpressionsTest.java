@@ -0,0 +1,71 @@
+package com.jeevision.bpm.worker.handler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.expression.common.LiteralExpression;
+import org.springframework.expression.spel.SpelCompilerMode;
+
+class ErrorExpressionsTest {
+
+    @Test
+    void testParse_PlainTextBecomesLiteral() {
+        var expression = ErrorExpressions.parse("BUSINESS_ERROR", ErrorExpressions.parser(SpelCompilerMode.OFF));
+
+        assertThat(expression).isInstanceOf(LiteralExpression.class);
+        assertThat(ErrorExpressions.evaluate(expression, new IllegalStateException("ignored"))).isEqualTo("BUSINESS_ERROR");
+    }
+
+    @Test
+    void testParse_BlankTemplateIsNull() {
+        assertThat(ErrorExpressions.parse("", ErrorExpressions.parser(SpelCompilerMode.OFF))).isNull();
+        assertThat(ErrorExpressions.parse(null, ErrorExpressions.parser(SpelCompilerMode.OFF))).isNull();
+    }
+
+    @Test
+    void testEvaluate_CompositeTemplateAgainstException() {
+        var expression = ErrorExpressions.parse("Failed [#{errorCode}]: #{message.toUpperCase()}",
+                ErrorExpressions.parser(SpelCompilerMode.OFF));
+
+        assertThat(ErrorExpressions.evaluate(expression, new CodedException("BIZ_001", "rule violated")))
+                .isEqualTo("Failed [BIZ_001]: RULE VIOLATED");
+    }
+
+    @Test
+    void testEvaluate_NullResultRendersEmpty() {
+        var expression = ErrorExpressions.parse("#{message}", ErrorExpressions.parser(SpelCompilerMode.OFF));
+
+        assertThat(ErrorExpressions.evaluate(expression, new IllegalStateException())).isEmpty();
+    }
+
+    @Test
+    void testEvaluate_CompiledExpressionGivesSameResultOnRepeatedCalls() {
+        var expression = ErrorExpressions.parse("#{errorCode}", ErrorExpressions.parser(SpelCompilerMode.IMMEDIATE));
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(ErrorExpressions.evaluate(expression, new CodedException("BIZ_00" + i, "msg")))
+                    .isEqualTo("BIZ_00" + i);
+        }
+    }
+
+    @Test
+    void testParse_InvalidTemplateFailsFast() {
+        assertThatThrownBy(() -> ErrorExpressions.parse("#{message", ErrorExpressions.parser(SpelCompilerMode.OFF)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("#{message");
+    }
+
+    public static class CodedException extends RuntimeException {
+        private final String errorCode;
+
+        public CodedException(String errorCode, String message) {
+            super(message);
+            this.errorCode = errorCode;
+        }
+
+        public String getErrorCode() {
+            return errorCode;
+        }
+    }
+}
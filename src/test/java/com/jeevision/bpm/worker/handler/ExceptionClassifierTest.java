@@ -0,0 +1,110 @@
+package com.jeevision.bpm.worker.handler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.expression.spel.SpelCompilerMode;
+
+import com.jeevision.bpm.worker.annotation.BpmError;
+import com.jeevision.bpm.worker.model.WorkerMethod.ThrowsExceptionInfo;
+
+class ExceptionClassifierTest {
+
+    private final ThrowsExceptionInfo validationMapping = ThrowsExceptionInfo.builder()
+            .exceptionType(ValidationException.class)
+            .errorCode("VALIDATION_FAILED")
+            .errorMessage("#{message}")
+            .build();
+
+    private final ExceptionClassifier classifier = new ExceptionClassifier(
+            Map.of(ValidationException.class, validationMapping), ErrorExpressions.parser(SpelCompilerMode.OFF));
+
+    @Test
+    void testClassify_ExactClass() {
+        var exception = new ValidationException("invalid");
+
+        var match = classifier.classify(exception);
+
+        assertThat(match.mapping()).isSameAs(validationMapping);
+        assertThat(match.exception()).isSameAs(exception);
+        assertThat(match.mapping().getErrorMessageExpression()).isNotNull();
+    }
+
+    @Test
+    void testClassify_SubclassOfMappedException() {
+        var match = classifier.classify(new MissingFieldException("name is missing"));
+
+        assertThat(match.mapping()).isSameAs(validationMapping);
+    }
+
+    @Test
+    void testClassify_MappedExceptionInCauseChain() {
+        var cause = new ValidationException("invalid");
+
+        var match = classifier.classify(new IllegalStateException("wrapped", new RuntimeException(cause)));
+
+        assertThat(match.mapping()).isSameAs(validationMapping);
+        assertThat(match.exception()).isSameAs(cause);
+    }
+
+    @Test
+    void testClassify_TypeLevelAnnotation() {
+        var exception = new CreditLimitException("limit exceeded");
+
+        var match = classifier.classify(exception);
+
+        assertThat(match.mapping().getErrorCode()).isEqualTo("CREDIT_LIMIT");
+        assertThat(ErrorExpressions.evaluate(match.mapping().getErrorCodeExpression(), exception)).isEqualTo("CREDIT_LIMIT");
+        assertThat(ErrorExpressions.evaluate(match.mapping().getErrorMessageExpression(), exception))
+                .isEqualTo("Rejected: limit exceeded");
+    }
+
+    @Test
+    void testClassify_MethodMappingTakesPrecedenceOverTypeAnnotation() {
+        var match = classifier.classify(new AnnotatedValidationException("invalid"));
+
+        assertThat(match.mapping()).isSameAs(validationMapping);
+    }
+
+    @Test
+    void testClassify_UnmappedExceptionIsFailure() {
+        assertThat(classifier.classify(new IllegalArgumentException("boom"))).isNull();
+        assertThat(classifier.classify(new RuntimeException(new IllegalStateException()))).isNull();
+    }
+
+    @Test
+    void testClassify_ResolutionIsMemoizedPerClass() {
+        var first = classifier.classify(new CreditLimitException("a"));
+        var second = classifier.classify(new CreditLimitException("b"));
+
+        assertThat(second.mapping()).isSameAs(first.mapping());
+    }
+
+    static class ValidationException extends RuntimeException {
+        ValidationException(String message) {
+            super(message);
+        }
+    }
+
+    static class MissingFieldException extends ValidationException {
+        MissingFieldException(String message) {
+            super(message);
+        }
+    }
+
+    @BpmError("ANNOTATED")
+    static class AnnotatedValidationException extends ValidationException {
+        AnnotatedValidationException(String message) {
+            super(message);
+        }
+    }
+
+    @BpmError(code = "CREDIT_LIMIT", message = "Rejected: #{message}")
+    static class CreditLimitException extends RuntimeException {
+        CreditLimitException(String message) {
+            super(message);
+        }
+    }
+}
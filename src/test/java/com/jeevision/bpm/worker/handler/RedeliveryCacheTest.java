@@ -0,0 +1,56 @@
+package com.jeevision.bpm.worker.handler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.jeevision.bpm.worker.outbox.OutboxEntry;
+
+class RedeliveryCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1000);
+    private final RedeliveryCache cache = new RedeliveryCache(2, 500, now::get);
+
+    @Test
+    void testGet_ReturnsStoredResultUntilItExpires() {
+        var result = completed("task-1");
+        cache.put("task-1", result);
+
+        now.addAndGet(499);
+        assertThat(cache.get("task-1")).isSameAs(result);
+
+        now.addAndGet(1);
+        assertThat(cache.get("task-1")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void testPut_EvictsLeastRecentlyUsed() {
+        cache.put("task-1", completed("task-1"));
+        cache.put("task-2", completed("task-2"));
+        cache.get("task-1");
+
+        cache.put("task-3", completed("task-3"));
+
+        assertThat(cache.get("task-1")).isNotNull();
+        assertThat(cache.get("task-2")).isNull();
+        assertThat(cache.get("task-3")).isNotNull();
+    }
+
+    @Test
+    void testInvalidate_RemovesResult() {
+        cache.put("task-1", completed("task-1"));
+
+        cache.invalidate("task-1");
+
+        assertThat(cache.get("task-1")).isNull();
+    }
+
+    private static OutboxEntry completed(String taskId) {
+        return new OutboxEntry(OutboxEntry.Kind.COMPLETE, taskId, "topic", 0, Map.of("done", true), null, 
+                null, null, null, 0, 0);
+    }
+}
@@ -0,0 +1,115 @@
+package com.jeevision.bpm.worker.handler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jeevision.bpm.worker.annotation.BpmResult;
+
+class ResultFlattenersTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testCompile_FlattensRecordWithPrefix() throws Exception {
+        var flattener = ResultFlatteners.compile(OrderResult.class, annotation("prefixed"), objectMapper);
+
+        var variables = flattener.flatten(new OrderResult("ORD123", 99.5, null, new Customer("C-1", "Ada")));
+
+        assertThat(variables).containsOnlyKeys("order_orderId", "order_total", "order_customer");
+        assertThat(variables).contains(entry("order_orderId", "ORD123"), entry("order_total", 99.5));
+        assertThat(variables.get("order_customer")).isEqualTo(Map.of("id", "C-1", "name", "Ada"));
+    }
+
+    @Test
+    void testCompile_FlattensNestedObjectsUpToDepth() throws Exception {
+        var flattener = ResultFlatteners.compile(OrderResult.class, annotation("nested"), objectMapper);
+
+        var variables = flattener.flatten(new OrderResult("ORD123", 99.5, null, new Customer("C-1", "Ada")));
+
+        assertThat(variables).containsOnly(
+                entry("orderId", "ORD123"),
+                entry("total", 99.5),
+                entry("status", null),
+                entry("customer_id", "C-1"),
+                entry("customer_name", "Ada"));
+    }
+
+    @Test
+    void testCompile_FlattensBeanGetters() throws Exception {
+        var flattener = ResultFlatteners.compile(PaymentBean.class, annotation("prefixed"), objectMapper);
+
+        var variables = flattener.flatten(new PaymentBean());
+
+        assertThat(variables).containsOnly(entry("order_paymentId", "P-1"), entry("order_approved", true));
+    }
+
+    @Test
+    void testCompile_MatchesJacksonRoundTrip() throws Exception {
+        var annotation = annotation("nested");
+        var result = new OrderResult("ORD123", 99.5, "CONFIRMED", new Customer("C-1", "Ada"));
+
+        var compiled = ResultFlatteners.compile(OrderResult.class, annotation, objectMapper).flatten(result);
+        var jackson = ResultFlatteners.jackson(annotation, objectMapper).flatten(result);
+
+        assertThat(compiled).isEqualTo(jackson);
+    }
+
+    @Test
+    void testCompile_MatchesJacksonForNestedMapsAndAnnotatedTypes() throws Exception {
+        var annotation = annotation("deep");
+        var result = new ShipmentResult("SHP-1", Map.of("street", "Main 1", "geo", Map.of("lat", 1.5, "lon", 2.5)), 
+                new Carrier("DHL", "Express"));
+
+        var compiled = ResultFlatteners.compile(ShipmentResult.class, annotation, objectMapper).flatten(result);
+        var jackson = ResultFlatteners.jackson(annotation, objectMapper).flatten(result);
+
+        assertThat(compiled).isEqualTo(jackson);
+        assertThat(compiled).containsOnly(
+                entry("shipmentId", "SHP-1"),
+                entry("address_street", "Main 1"),
+                entry("address_geo_lat", 1.5),
+                entry("address_geo_lon", 2.5),
+                entry("carrier_carrier_name", "DHL"),
+                entry("carrier_service", "Express"));
+    }
+
+    private static BpmResult annotation(String methodName) throws Exception {
+        return ResultFlattenersTest.class.getDeclaredMethod(methodName).getAnnotation(BpmResult.class);
+    }
+
+    @BpmResult(flatten = true, flattenPrefix = "order_")
+    private static void prefixed() {
+    }
+
+    @BpmResult(flatten = true, flattenDepth = 2, includeNullProperties = true)
+    private static void nested() {
+    }
+
+    @BpmResult(flatten = true, flattenDepth = 3)
+    private static void deep() {
+    }
+
+    record Customer(String id, String name) {}
+
+    record Carrier(@JsonProperty("carrier_name") String name, String service) {}
+
+    record ShipmentResult(String shipmentId, Map<String, Object> address, Carrier carrier) {}
+
+    record OrderResult(String orderId, Double total, String status, Customer customer) {}
+
+    public static class PaymentBean {
+        public String getPaymentId() {
+            return "P-1";
+        }
+
+        public boolean isApproved() {
+            return true;
+        }
+    }
+}
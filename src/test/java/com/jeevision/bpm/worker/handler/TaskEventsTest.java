@@ -0,0 +1,65 @@
+package com.jeevision.bpm.worker.handler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.cibseven.bpm.client.task.ExternalTask;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+class TaskEventsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testExecutionEvent_RecordedWithTaskFields() throws Exception {
+        var externalTask = mock(ExternalTask.class);
+        when(externalTask.getTopicName()).thenReturn("process-order");
+        when(externalTask.getId()).thenReturn("task-1");
+        when(externalTask.getProcessDefinitionKey()).thenReturn("order-process");
+
+        List<RecordedEvent> events;
+        try (var recording = new Recording()) {
+            recording.enable(TaskEvents.Execution.class).withoutThreshold();
+            recording.enable(TaskEvents.EngineRequest.class).withoutThreshold();
+            recording.start();
+
+            TaskEvents.EngineRequest.start().finish(externalTask, "complete");
+            TaskEvents.Execution.start().finish(externalTask, "completed");
+
+            recording.stop();
+            var file = tempDir.resolve("tasks.jfr");
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+        }
+
+        assertThat(events).extracting(event -> event.getEventType().getName())
+                .containsExactlyInAnyOrder("com.jeevision.bpm.worker.EngineRequest", "com.jeevision.bpm.worker.TaskExecution");
+        var execution = events.stream()
+                .filter(event -> event.getEventType().getName().endsWith("TaskExecution"))
+                .findFirst().orElseThrow();
+        assertThat(execution.getString("topic")).isEqualTo("process-order");
+        assertThat(execution.getString("taskId")).isEqualTo("task-1");
+        assertThat(execution.getString("processDefinitionKey")).isEqualTo("order-process");
+        assertThat(execution.getString("outcome")).isEqualTo("completed");
+    }
+
+    @Test
+    void testEvent_WithoutRecordingSkipsFields() {
+        var externalTask = mock(ExternalTask.class);
+
+        TaskEvents.Conversion.start().finish(externalTask, 2);
+
+        verifyNoInteractions(externalTask);
+    }
+}
@@ -0,0 +1,67 @@
+package com.jeevision.bpm.worker.lock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.jeevision.bpm.worker.config.BpmWorkerProperties;
+
+class AdaptiveLockDurationTest {
+
+    private final BpmWorkerProperties.Lock.Adaptive settings = new BpmWorkerProperties.Lock.Adaptive();
+
+    AdaptiveLockDurationTest() {
+        settings.setEnabled(true);
+        settings.setMinSamples(10);
+        settings.setSafetyFactor(2.0);
+        settings.setMin(1_000);
+        settings.setMax(120_000);
+    }
+
+    @Test
+    void testRecommend_UsesConfiguredUntilEnoughSamples() {
+        var lockDuration = new AdaptiveLockDuration(30_000, settings);
+        for (int i = 0; i < 9; i++) {
+            lockDuration.record(2_000);
+        }
+
+        assertThat(lockDuration.recommend()).isEqualTo(30_000);
+        assertThat(lockDuration.adapt()).isFalse();
+        assertThat(lockDuration.getCurrent()).isEqualTo(30_000);
+    }
+
+    @Test
+    void testAdapt_LearnsPercentileTimesSafetyFactor() {
+        var lockDuration = new AdaptiveLockDuration(30_000, settings);
+        for (int i = 0; i < 100; i++) {
+            lockDuration.record(2_000);
+        }
+
+        assertThat(lockDuration.adapt()).isTrue();
+        assertThat(lockDuration.getCurrent()).isBetween(4_000L, 4_500L);
+    }
+
+    @Test
+    void testRecommend_StaysWithinBounds() {
+        var fast = new AdaptiveLockDuration(30_000, settings);
+        var slow = new AdaptiveLockDuration(30_000, settings);
+        for (int i = 0; i < 100; i++) {
+            fast.record(5);
+            slow.record(300_000);
+        }
+
+        assertThat(fast.recommend()).isEqualTo(1_000);
+        assertThat(slow.recommend()).isEqualTo(120_000);
+    }
+
+    @Test
+    void testAdapt_IgnoresChangesWithinTolerance() {
+        var lockDuration = new AdaptiveLockDuration(4_000, settings);
+        for (int i = 0; i < 100; i++) {
+            lockDuration.record(2_100);
+        }
+
+        assertThat(lockDuration.adapt()).isFalse();
+        assertThat(lockDuration.getCurrent()).isEqualTo(4_000);
+    }
+}
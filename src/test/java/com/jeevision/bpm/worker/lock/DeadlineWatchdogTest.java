@@ -0,0 +1,73 @@
+package com.jeevision.bpm.worker.lock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.jeevision.bpm.worker.model.TaskDeadline;
+
+class DeadlineWatchdogTest {
+
+    /** Never ticks on its own within a test; each test ticks it directly */
+    private final DeadlineWatchdog watchdog = new DeadlineWatchdog(20, 3_600_000);
+
+    @AfterEach
+    void tearDown() {
+        watchdog.close();
+    }
+
+    @Test
+    void testWatch_InterruptsExecutionOverrunningItsDeadline() {
+        var deadline = TaskDeadline.at(Instant.now().minusSeconds(1));
+
+        try (var watch = watchdog.watch("task-1", deadline)) {
+            watchdog.interruptOverrun();
+
+            assertThat(watch.isInterrupted()).isTrue();
+            assertThatThrownBy(() -> Thread.sleep(5000)).isInstanceOf(InterruptedException.class);
+        }
+        assertThat(Thread.currentThread().isInterrupted()).isFalse();
+        assertThat(watchdog.getWatched()).isZero();
+    }
+
+    @Test
+    void testWatch_ClearsPendingInterruptOnClose() {
+        var deadline = TaskDeadline.at(Instant.now().minusSeconds(1));
+
+        try (var watch = watchdog.watch("task-1", deadline)) {
+            watchdog.interruptOverrun();
+            assertThat(Thread.currentThread().isInterrupted()).isTrue();
+        }
+        assertThat(Thread.currentThread().isInterrupted()).isFalse();
+    }
+
+    @Test
+    void testWatch_DoesNotInterruptWithinDeadline() {
+        var deadline = TaskDeadline.at(Instant.now().plusSeconds(30));
+
+        try (var watch = watchdog.watch("task-1", deadline)) {
+            watchdog.interruptOverrun();
+
+            assertThat(watch.isInterrupted()).isFalse();
+            assertThat(Thread.currentThread().isInterrupted()).isFalse();
+            assertThat(watchdog.getWatched()).isEqualTo(1);
+        }
+        assertThat(watchdog.getWatched()).isZero();
+    }
+
+    @Test
+    void testClose_StopsWatching() {
+        var deadline = TaskDeadline.at(Instant.now().minusSeconds(1));
+
+        var watch = watchdog.watch("task-1", deadline);
+        watch.close();
+        watchdog.interruptOverrun();
+
+        assertThat(watch.isInterrupted()).isFalse();
+        assertThat(Thread.currentThread().isInterrupted()).isFalse();
+    }
+}
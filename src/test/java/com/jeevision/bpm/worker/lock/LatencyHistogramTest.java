@@ -0,0 +1,63 @@
+package com.jeevision.bpm.worker.lock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testPercentile_EmptyHistogramIsZero() {
+        assertThat(new LatencyHistogram().percentile(0.99)).isZero();
+    }
+
+    @Test
+    void testPercentile_SmallValuesAreExact() {
+        var histogram = new LatencyHistogram();
+        for (long millis = 1; millis <= 10; millis++) {
+            histogram.record(millis);
+        }
+
+        assertThat(histogram.percentile(0.5)).isEqualTo(5);
+        assertThat(histogram.percentile(1.0)).isEqualTo(10);
+    }
+
+    @Test
+    void testPercentile_LargeValuesWithinBucketError() {
+        var histogram = new LatencyHistogram();
+        for (int i = 0; i < 990; i++) {
+            histogram.record(200);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(45_000);
+        }
+
+        assertThat((double) histogram.percentile(0.99)).isCloseTo(200, within(200 * 0.125));
+        assertThat((double) histogram.percentile(0.999)).isCloseTo(45_000, within(45_000 * 0.125));
+        assertThat(histogram.percentile(0.999)).isGreaterThanOrEqualTo(45_000);
+    }
+
+    @Test
+    void testDecay_HalvesCounts() {
+        var histogram = new LatencyHistogram();
+        for (int i = 0; i < 100; i++) {
+            histogram.record(1_000);
+        }
+
+        histogram.decay();
+
+        assertThat(histogram.getCount()).isEqualTo(50);
+    }
+
+    @Test
+    void testBuckets_UpperBoundCoversEveryValue() {
+        for (long millis : new long[] {0, 15, 16, 17, 31, 32, 1_000, 65_535, 3_600_000}) {
+            int index = LatencyHistogram.indexOf(millis);
+            assertThat(LatencyHistogram.upperBound(index)).isGreaterThanOrEqualTo(millis);
+            if (index > 0) {
+                assertThat(LatencyHistogram.upperBound(index - 1)).isLessThan(millis);
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.jeevision.bpm.worker.lock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.cibseven.bpm.client.task.ExternalTask;
+import org.cibseven.bpm.client.task.ExternalTaskService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class LockHeartbeatTest {
+
+    private final LockHeartbeat heartbeat = new LockHeartbeat(10, 0.5);
+    private final ExternalTask externalTask = mock(ExternalTask.class);
+    private final ExternalTaskService externalTaskService = mock(ExternalTaskService.class);
+
+    @AfterEach
+    void tearDown() {
+        heartbeat.close();
+    }
+
+    @Test
+    void testTrack_ExtendsLockRepeatedlyUntilReleased() {
+        var lease = heartbeat.track(externalTask, externalTaskService, 100);
+
+        verify(externalTaskService, timeout(1000).atLeast(2)).extendLock(externalTask, 100L);
+        assertThat(heartbeat.getTracked()).isEqualTo(1);
+
+        lease.release();
+        clearInvocations(externalTaskService);
+
+        verify(externalTaskService, after(200).never()).extendLock(externalTask, 100L);
+        assertThat(heartbeat.getTracked()).isZero();
+    }
+
+    @Test
+    void testTrack_ReleasedBeforeDueIsNeverExtended() {
+        var lease = heartbeat.track(externalTask, externalTaskService, 1000);
+        lease.release();
+
+        verify(externalTaskService, after(700).never()).extendLock(externalTask, 1000L);
+    }
+
+    @Test
+    void testTrack_FailedExtensionStopsTracking() {
+        doThrow(new IllegalStateException("lock lost")).when(externalTaskService).extendLock(externalTask, 100L);
+
+        var lease = heartbeat.track(externalTask, externalTaskService, 100);
+
+        verify(externalTaskService, timeout(1000)).extendLock(externalTask, 100L);
+        verify(externalTaskService, after(200).times(1)).extendLock(externalTask, 100L);
+        assertThat(lease.isReleased()).isTrue();
+        assertThat(heartbeat.getTracked()).isZero();
+    }
+
+    @Test
+    void testTrack_ManyTasksShareTheWheel() {
+        var services = new ExternalTaskService[50];
+        for (int i = 0; i < services.length; i++) {
+            services[i] = mock(ExternalTaskService.class);
+            heartbeat.track(externalTask, services[i], 60);
+        }
+
+        for (var service : services) {
+            verify(service, timeout(1000).atLeast(1)).extendLock(externalTask, 60L);
+        }
+        verify(externalTaskService, never()).extendLock(any(ExternalTask.class), anyLong());
+    }
+
+    @Test
+    void testRelease_WaitsForExtensionInFlight() throws Exception {
+        var extending = new CountDownLatch(1);
+        var engineAnswers = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            extending.countDown();
+            engineAnswers.await();
+            return null;
+        }).when(externalTaskService).extendLock(externalTask, 100L);
+        var lease = heartbeat.track(externalTask, externalTaskService, 100);
+        assertThat(extending.await(5, TimeUnit.SECONDS)).isTrue();
+
+        var released = new CountDownLatch(1);
+        Thread.ofVirtual().start(() -> {
+            lease.release();
+            released.countDown();
+        });
+
+        assertThat(released.await(100, TimeUnit.MILLISECONDS)).isFalse();
+        engineAnswers.countDown();
+        assertThat(released.await(5, TimeUnit.SECONDS)).isTrue();
+        clearInvocations(externalTaskService);
+        verify(externalTaskService, after(200).never()).extendLock(externalTask, 100L);
+    }
+
+    @Test
+    void testConstructor_RejectsInvalidRatio() {
+        assertThatThrownBy(() -> new LockHeartbeat(10, 1.0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
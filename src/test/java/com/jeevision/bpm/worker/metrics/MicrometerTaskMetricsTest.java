@@ -0,0 +1,77 @@
+package com.jeevision.bpm.worker.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.jeevision.bpm.worker.metrics.TopicMetrics.EngineCall;
+import com.jeevision.bpm.worker.metrics.TopicMetrics.Outcome;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class MicrometerTaskMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final TopicMetrics metrics = new MicrometerTaskMetrics(registry).forTopic("process-order");
+
+    @Test
+    void testForTopic_RegistersMetersUpFront() {
+        assertThat(registry.get("bpm.worker.tasks.in.flight").tag("topic", "process-order").gauge().value()).isZero();
+        assertThat(registry.get("bpm.worker.task.invocation").tag("topic", "process-order").timers()).hasSize(3);
+        assertThat(registry.get("bpm.worker.engine.call").tag("topic", "process-order").timers()).hasSize(3);
+        assertThat(metrics.isEnabled()).isTrue();
+    }
+
+    @Test
+    void testTaskLifecycle_RecordsInFlightAndOutcome() {
+        metrics.taskStarted();
+        metrics.taskStarted();
+        assertThat(registry.get("bpm.worker.tasks.in.flight").gauge().value()).isEqualTo(2);
+
+        metrics.taskFinished(Outcome.COMPLETED);
+        metrics.taskFinished(Outcome.BPMN_ERROR);
+
+        assertThat(registry.get("bpm.worker.tasks.in.flight").gauge().value()).isZero();
+        assertThat(registry.get("bpm.worker.tasks").tag("outcome", "completed").counter().count()).isEqualTo(1);
+        assertThat(registry.get("bpm.worker.tasks").tag("outcome", "bpmn_error").counter().count()).isEqualTo(1);
+        assertThat(registry.get("bpm.worker.tasks").tag("outcome", "failure").counter().count()).isZero();
+    }
+
+    @Test
+    void testTimers_RecordIntoTaggedMeters() {
+        metrics.queueDelay(250);
+        metrics.conversion(TimeUnit.MICROSECONDS.toNanos(40));
+        metrics.invocation(TimeUnit.MILLISECONDS.toNanos(12), Outcome.FAILURE);
+        metrics.engineCall(EngineCall.HANDLE_FAILURE, TimeUnit.MILLISECONDS.toNanos(5));
+
+        assertThat(registry.get("bpm.worker.task.queue.delay").timer().totalTime(TimeUnit.MILLISECONDS)).isEqualTo(250);
+        assertThat(registry.get("bpm.worker.task.conversion").timer().count()).isEqualTo(1);
+        assertThat(registry.get("bpm.worker.task.invocation").tag("outcome", "failure").timer().totalTime(TimeUnit.MILLISECONDS))
+                .isEqualTo(12);
+        assertThat(registry.get("bpm.worker.engine.call").tag("operation", "handle_failure").timer().count()).isEqualTo(1);
+        assertThat(registry.get("bpm.worker.engine.call").tag("operation", "complete").timer().count()).isZero();
+    }
+
+    @Test
+    void testPayloadSize_RecordsDistribution() {
+        metrics.payloadSize(1024);
+        metrics.payloadSize(3072);
+
+        var summary = registry.get("bpm.worker.task.payload").tag("topic", "process-order").summary();
+        assertThat(summary.count()).isEqualTo(2);
+        assertThat(summary.totalAmount()).isEqualTo(4096);
+        assertThat(summary.max()).isEqualTo(3072);
+    }
+
+    @Test
+    void testRedelivery_CountsHitsAndMisses() {
+        metrics.redelivery(false);
+        metrics.redelivery(false);
+        metrics.redelivery(true);
+
+        assertThat(registry.get("bpm.worker.redelivery.cache").tag("result", "hit").counter().count()).isEqualTo(1);
+        assertThat(registry.get("bpm.worker.redelivery.cache").tag("result", "miss").counter().count()).isEqualTo(2);
+    }
+}
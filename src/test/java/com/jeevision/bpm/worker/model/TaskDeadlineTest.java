@@ -0,0 +1,58 @@
+package com.jeevision.bpm.worker.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+import org.cibseven.bpm.client.task.ExternalTask;
+import org.junit.jupiter.api.Test;
+
+class TaskDeadlineTest {
+
+    @Test
+    void testOf_UsesLockExpirationTime() {
+        var expiresAt = Instant.now().plusSeconds(30);
+        var externalTask = mock(ExternalTask.class);
+        when(externalTask.getLockExpirationTime()).thenReturn(Date.from(expiresAt));
+
+        var deadline = TaskDeadline.of(externalTask);
+
+        assertThat(deadline.getExpiresAt()).isEqualTo(Instant.ofEpochMilli(expiresAt.toEpochMilli()));
+        assertThat(deadline.remaining()).isBetween(Duration.ofSeconds(25), Duration.ofSeconds(30));
+        assertThat(deadline.isExpired()).isFalse();
+    }
+
+    @Test
+    void testOf_WithoutLockExpirationTime_IsUnbounded() {
+        var deadline = TaskDeadline.of(mock(ExternalTask.class));
+
+        assertThat(deadline.getExpiresAt()).isEqualTo(Instant.MAX);
+        assertThat(deadline.remainingMillis()).isEqualTo(Long.MAX_VALUE);
+        assertThat(deadline.isExpired()).isFalse();
+    }
+
+    @Test
+    void testRemaining_NeverNegative() {
+        var deadline = TaskDeadline.at(Instant.now().minusSeconds(5));
+
+        assertThat(deadline.isExpired()).isTrue();
+        assertThat(deadline.remainingMillis()).isNegative();
+        assertThat(deadline.remaining()).isEqualTo(Duration.ZERO);
+    }
+
+    @Test
+    void testExtendTo_OnlyMovesForward() {
+        var expiresAt = Instant.now().plusSeconds(10);
+        var deadline = TaskDeadline.at(expiresAt);
+
+        deadline.extendTo(expiresAt.minusSeconds(5).toEpochMilli());
+        assertThat(deadline.getExpiresAt()).isEqualTo(expiresAt);
+
+        deadline.extendTo(expiresAt.plusSeconds(20).toEpochMilli());
+        assertThat(deadline.getExpiresAt()).isEqualTo(expiresAt.plusSeconds(20));
+    }
+}
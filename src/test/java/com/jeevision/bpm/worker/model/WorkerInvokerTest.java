@@ -0,0 +1,54 @@
+package com.jeevision.bpm.worker.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+class WorkerInvokerTest {
+
+    @Test
+    void testInvoke_PassesArgumentsAndReturnsResult() throws Throwable {
+        var invoker = WorkerInvoker.of(new Worker(), Worker.class.getMethod("concat", String.class, int.class));
+
+        assertThat(invoker.invoke(new Object[] {"order-", 7})).isEqualTo("order-7");
+    }
+
+    @Test
+    void testInvoke_VoidMethodReturnsNull() throws Throwable {
+        var invoker = WorkerInvoker.of(new Worker(), Worker.class.getMethod("noop"));
+
+        assertThat(invoker.invoke(new Object[0])).isNull();
+    }
+
+    @Test
+    void testInvoke_PropagatesExceptionUnwrapped() throws Exception {
+        var invoker = WorkerInvoker.of(new Worker(), Worker.class.getMethod("fail"));
+
+        assertThatThrownBy(() -> invoker.invoke(new Object[0]))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("failed");
+    }
+
+    @Test
+    void testReflective_UnwrapsInvocationTargetException() throws Exception {
+        var invoker = WorkerInvoker.reflective(new Worker(), Worker.class.getMethod("fail"));
+
+        assertThatThrownBy(() -> invoker.invoke(new Object[0]))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("failed");
+    }
+
+    static class Worker {
+        public String concat(String prefix, int number) {
+            return prefix + number;
+        }
+
+        public void noop() {
+        }
+
+        public void fail() {
+            throw new IllegalStateException("failed");
+        }
+    }
+}
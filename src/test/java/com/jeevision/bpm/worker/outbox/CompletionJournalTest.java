@@ -0,0 +1,120 @@
+package com.jeevision.bpm.worker.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CompletionJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRecovered_ContainsOnlyUnacknowledgedEntries() throws Exception {
+        try (var journal = new CompletionJournal(directory, 4096, false)) {
+            long first = journal.append(bytes("first"));
+            journal.append(bytes("second"));
+            journal.acknowledge(first);
+        }
+
+        try (var reopened = new CompletionJournal(directory, 4096, false)) {
+            assertThat(reopened.recovered()).hasSize(1);
+            assertThat(reopened.recovered().values()).first().satisfies(payload -> assertThat(text(payload)).isEqualTo("second"));
+            assertThat(reopened.getPending()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void testAppend_ContinuesSequenceAfterReopen() throws Exception {
+        long last;
+        try (var journal = new CompletionJournal(directory, 4096, false)) {
+            journal.append(bytes("a"));
+            last = journal.append(bytes("b"));
+        }
+
+        try (var reopened = new CompletionJournal(directory, 4096, false)) {
+            assertThat(reopened.append(bytes("c"))).isGreaterThan(last);
+        }
+    }
+
+    @Test
+    void testAcknowledge_DeletesSegmentsOnceAllTheirEntriesAreAcknowledged() throws Exception {
+        try (var journal = new CompletionJournal(directory, 128, false)) {
+            long first = journal.append(new byte[80]);
+            long second = journal.append(new byte[80]);
+            assertThat(segments()).isEqualTo(2);
+
+            journal.acknowledge(second);
+            assertThat(segments()).isEqualTo(2);
+
+            journal.acknowledge(first);
+            assertThat(segments()).isEqualTo(1);
+            assertThat(journal.getPending()).isZero();
+        }
+
+        try (var reopened = new CompletionJournal(directory, 128, false)) {
+            assertThat(reopened.recovered()).isEmpty();
+        }
+    }
+
+    @Test
+    void testRecover_IgnoresTornRecord() throws Exception {
+        try (var journal = new CompletionJournal(directory, 4096, false)) {
+            journal.append(bytes("intact"));
+            journal.append(bytes("torn"));
+        }
+        // Corrupt the payload of the second record
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        try (var channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] { 'X' }), 8 + 9 + "intact".length() + 8 + 9);
+        }
+
+        try (var reopened = new CompletionJournal(directory, 4096, false)) {
+            assertThat(reopened.recovered().values()).extracting(CompletionJournalTest::text).containsExactly("intact");
+        }
+    }
+
+    @Test
+    void testAppend_RejectsEntryLargerThanSegment() throws Exception {
+        try (var journal = new CompletionJournal(directory, 64, false)) {
+            assertThatThrownBy(() -> journal.append(new byte[64])).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    void testAppend_RejectedOnceClosed() throws Exception {
+        var journal = new CompletionJournal(directory, 4096, false);
+        long sequence = journal.append(bytes("pending"));
+        journal.close();
+
+        assertThatThrownBy(() -> journal.append(bytes("late"))).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> journal.acknowledge(sequence)).isInstanceOf(IllegalStateException.class);
+    }
+
+    private long segments() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(byte[] payload) {
+        return new String(payload, StandardCharsets.UTF_8);
+    }
+}
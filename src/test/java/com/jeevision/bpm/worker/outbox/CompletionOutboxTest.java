@@ -0,0 +1,162 @@
+package com.jeevision.bpm.worker.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.cibseven.bpm.client.exception.ConnectionLostException;
+import org.cibseven.bpm.client.task.ExternalTask;
+import org.cibseven.bpm.client.task.ExternalTaskService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class CompletionOutboxTest {
+
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExternalTaskService externalTaskService = mock(ExternalTaskService.class);
+
+    public record Receipt(String id, int amount) {
+    }
+
+    @Test
+    void testDeliver_AcknowledgesAcceptedReport() throws Exception {
+        try (var outbox = open()) {
+            outbox.deliver(OutboxEntry.complete(task(60000), Map.of("receipt", new Receipt("r-1", 5))), 
+                    externalTaskService, () -> { });
+
+            assertThat(outbox.getParked()).isZero();
+        }
+        try (var reopened = open()) {
+            assertThat(reopened.getParked()).isZero();
+        }
+    }
+
+    @Test
+    void testDeliver_ParksReportWhileEngineIsUnreachable() throws Exception {
+        try (var outbox = open()) {
+            outbox.deliver(OutboxEntry.complete(task(60000), Map.of("approved", true)), externalTaskService, 
+                    () -> { throw mock(ConnectionLostException.class); });
+
+            assertThat(outbox.getParked()).isEqualTo(1);
+
+            outbox.replay();
+
+            verify(externalTaskService).complete("task-1", Map.of("approved", true), Map.of());
+            verify(externalTaskService, never()).extendLock(anyString(), anyLong());
+            assertThat(outbox.getParked()).isZero();
+        }
+    }
+
+    @Test
+    void testDeliver_RethrowsFinalErrors() throws Exception {
+        try (var outbox = open()) {
+            assertThatThrownBy(() -> outbox.deliver(OutboxEntry.complete(task(60000), Map.of()), externalTaskService, 
+                    () -> { throw new IllegalStateException("rejected"); }))
+                    .isInstanceOf(IllegalStateException.class);
+
+            assertThat(outbox.getParked()).isZero();
+        }
+    }
+
+    @Test
+    void testReplay_RestoresReportsAfterRestartWithTheirVariableTypes() throws Exception {
+        try (var outbox = open()) {
+            outbox.deliver(OutboxEntry.complete(task(60000), Map.of("amount", 5L, "due", new Date(0))), externalTaskService, 
+                    () -> { throw mock(ConnectionLostException.class); });
+        }
+
+        try (var restarted = open()) {
+            assertThat(restarted.getParked()).isEqualTo(1);
+            // Replays once a task of the restarted worker hands over its service
+            restarted.deliver(OutboxEntry.bpmnError(task(60000), "E", "m"), externalTaskService, () -> { });
+            restarted.replay();
+        }
+
+        verify(externalTaskService).complete("task-1", Map.of("amount", 5L, "due", new Date(0)), Map.of());
+    }
+
+    @Test
+    void testReplay_KeepsOtherTypesInTheirJsonForm() throws Exception {
+        try (var outbox = open()) {
+            outbox.deliver(OutboxEntry.complete(task(60000), Map.of("receipt", new Receipt("r-1", 5))), externalTaskService, 
+                    () -> { throw mock(ConnectionLostException.class); });
+        }
+
+        try (var restarted = open()) {
+            assertThat(restarted.getParked()).isEqualTo(1);
+            // Replays once a task of the restarted worker hands over its service
+            restarted.deliver(OutboxEntry.bpmnError(task(60000), "E", "m"), externalTaskService, () -> { });
+            restarted.replay();
+        }
+
+        verify(externalTaskService).complete("task-1", Map.of("receipt", Map.of("id", "r-1", "amount", 5)), Map.of());
+    }
+
+    @Test
+    void testReplay_ExtendsLockAboutToExpire() throws Exception {
+        try (var outbox = open()) {
+            outbox.deliver(OutboxEntry.failure(task(1000), "boom", "details", 2, 500), externalTaskService, 
+                    () -> { throw mock(ConnectionLostException.class); });
+
+            outbox.replay();
+
+            verify(externalTaskService).extendLock("task-1", 60000);
+            verify(externalTaskService).handleFailure("task-1", "boom", "details", 2, 500);
+        }
+    }
+
+    @Test
+    void testReplay_DropsReportTheEngineRejects() throws Exception {
+        doThrow(new IllegalStateException("lock expired")).when(externalTaskService).extendLock(anyString(), anyLong());
+        try (var outbox = open()) {
+            outbox.deliver(OutboxEntry.complete(task(-1000), Map.of()), externalTaskService, 
+                    () -> { throw mock(ConnectionLostException.class); });
+
+            outbox.replay();
+
+            verify(externalTaskService, never()).complete(anyString(), any(), any());
+            assertThat(outbox.getParked()).isZero();
+        }
+    }
+
+    @Test
+    void testDeliver_SendsUnjournaledOnceClosed() throws Exception {
+        var outbox = open();
+        outbox.close();
+        var sent = new AtomicBoolean();
+
+        outbox.deliver(OutboxEntry.complete(task(60000), Map.of()), externalTaskService, () -> sent.set(true));
+
+        assertThat(sent).isTrue();
+        assertThat(outbox.getParked()).isZero();
+    }
+
+    private CompletionOutbox open() throws Exception {
+        return new CompletionOutbox(new CompletionJournal(directory, 64 * 1024, false), objectMapper, 10000, 60000);
+    }
+
+    private static ExternalTask task(long lockRemaining) {
+        var externalTask = mock(ExternalTask.class);
+        when(externalTask.getId()).thenReturn("task-1");
+        when(externalTask.getTopicName()).thenReturn("charge");
+        when(externalTask.getLockExpirationTime()).thenReturn(new Date(System.currentTimeMillis() + lockRemaining));
+        return externalTask;
+    }
+}
@@ -1,13 +1,18 @@
 package com.jeevision.bpm.worker.registry;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 
 import java.lang.reflect.Field;
+import java.util.List;
 import java.util.Map;
 
+import org.cibseven.bpm.client.task.ExternalTask;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -76,4 +81,99 @@ class BpmWorkerRegistryTest {
         WorkerMethod.ParameterInfo paramInfo = workerMethod.getParameters().get(0);
         assertEquals("resolved-var", paramInfo.getVariableName());
     }
+
+    @Test
+    void testRegistration_CollectsDeclaredVariableNames() {
+        class VariableWorker {
+            @BpmWorker(value = "variables-topic", localVariables = true)
+            public void process(@BpmVariable("orderId") String orderId,
+                                ExternalTask task,
+                                @BpmVariable("amount") Double amount,
+                                @BpmVariable("orderId") String sameOrderId) {
+            }
+        }
+        
+        registry.postProcessAfterInitialization(new VariableWorker(), "variableWorker");
+        
+        WorkerMethod workerMethod = registry.getWorkerMethod("variables-topic").orElseThrow();
+        assertEquals(List.of("orderId", "amount"), workerMethod.getVariableNames());
+        assertTrue(workerMethod.isLocalVariables());
+    }
+    
+    @Test
+    void testRegistration_FetchesIdempotencyKeyVariable() {
+        class IdempotentWorker {
+            @BpmWorker(value = "idempotent-topic", idempotencyKey = "paymentId")
+            public void process(@BpmVariable("orderId") String orderId) {
+            }
+        }
+        
+        registry.postProcessAfterInitialization(new IdempotentWorker(), "idempotentWorker");
+        
+        WorkerMethod workerMethod = registry.getWorkerMethod("idempotent-topic").orElseThrow();
+        assertEquals(List.of("orderId", "paymentId"), workerMethod.getVariableNames());
+    }
+    
+    @Test
+    void testRegistration_FetchAllVariablesEscapeHatch() {
+        class RawTaskWorker {
+            @BpmWorker(value = "raw-topic", fetchAllVariables = true)
+            public void process(ExternalTask task) {
+            }
+        }
+        
+        registry.postProcessAfterInitialization(new RawTaskWorker(), "rawTaskWorker");
+        
+        WorkerMethod workerMethod = registry.getWorkerMethod("raw-topic").orElseThrow();
+        assertNull(workerMethod.getVariableNames());
+    }
+    
+    record OrderRow(String orderId, Double amount) {
+    }
+    
+    @Test
+    void testRegistration_BatchOfTypedInputs() {
+        class BatchWorker {
+            @BpmWorker(value = "batch-topic", batch = true)
+            public List<Object> process(List<OrderRow> rows) {
+                return List.of();
+            }
+        }
+        
+        registry.postProcessAfterInitialization(new BatchWorker(), "batchWorker");
+        
+        WorkerMethod workerMethod = registry.getWorkerMethod("batch-topic").orElseThrow();
+        assertTrue(workerMethod.isBatch());
+        assertEquals(OrderRow.class, workerMethod.getBatchElementType().getRawClass());
+        assertEquals(List.of("orderId", "amount"), workerMethod.getVariableNames());
+        assertEquals(0, workerMethod.getArgumentResolvers().length);
+    }
+    
+    @Test
+    void testRegistration_BatchOfRawTasks() {
+        class RawBatchWorker {
+            @BpmWorker(value = "raw-batch-topic", batch = true)
+            public void process(List<ExternalTask> tasks) {
+            }
+        }
+        
+        registry.postProcessAfterInitialization(new RawBatchWorker(), "rawBatchWorker");
+        
+        WorkerMethod workerMethod = registry.getWorkerMethod("raw-batch-topic").orElseThrow();
+        assertTrue(workerMethod.isBatch());
+        assertNull(workerMethod.getBatchElementType());
+        assertNull(workerMethod.getVariableNames());
+    }
+    
+    @Test
+    void testRegistration_RejectsInvalidBatchSignature() {
+        class InvalidBatchWorker {
+            @BpmWorker(value = "invalid-batch-topic", batch = true)
+            public void process(ExternalTask task) {
+            }
+        }
+        
+        assertThrows(IllegalStateException.class,
+                () -> registry.postProcessAfterInitialization(new InvalidBatchWorker(), "invalidBatchWorker"));
+    }
 }